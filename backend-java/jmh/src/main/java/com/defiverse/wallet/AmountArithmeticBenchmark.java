@@ -0,0 +1,91 @@
+// JMH pair for the amount arithmetic on the transfer and valuation path
+// Each op checks the sender covers the amount, debits and credits, computes the
+// gas fee, then values the sender's new balance at a token price into a running
+// summary total: once with BigDecimal the way the service did before fixed-point
+// amounts, once with Amounts.multiply and ValueTotal. No Spring context needed.
+// Run with: java -cp <classpath> org.openjdk.jmh.Main AmountArithmeticBenchmark -prof gc
+
+package com.defiverse.wallet;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AmountArithmeticBenchmark {
+
+    // Power of two, so the index wraps with a mask
+    private static final int INPUTS = 1024;
+    private static final BigDecimal GAS_RATE = new BigDecimal("0.001");
+
+    private BigDecimal[] senderBalances;
+    private BigDecimal[] receiverBalances;
+    private BigDecimal[] amounts;
+    private BigDecimal[] prices;
+    private long[] senderUnits;
+    private long[] receiverUnits;
+    private long[] amountUnits;
+    private long[] priceUnits;
+    private int next;
+
+    // The same values in both representations, varied so the JIT cannot fold them
+    @Setup(Level.Trial)
+    public void generateInputs() {
+        SplittableRandom random = new SplittableRandom(42);
+        senderBalances = new BigDecimal[INPUTS];
+        receiverBalances = new BigDecimal[INPUTS];
+        amounts = new BigDecimal[INPUTS];
+        prices = new BigDecimal[INPUTS];
+        senderUnits = new long[INPUTS];
+        receiverUnits = new long[INPUTS];
+        amountUnits = new long[INPUTS];
+        priceUnits = new long[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            senderUnits[i] = random.nextLong(Amounts.ONE, 1_000_000 * Amounts.ONE);
+            receiverUnits[i] = random.nextLong(0, 1_000_000 * Amounts.ONE);
+            amountUnits[i] = random.nextLong(1, senderUnits[i]);
+            priceUnits[i] = random.nextLong(Amounts.ONE / 100, 50_000 * Amounts.ONE);
+            senderBalances[i] = Amounts.toDecimal(senderUnits[i]);
+            receiverBalances[i] = Amounts.toDecimal(receiverUnits[i]);
+            amounts[i] = Amounts.toDecimal(amountUnits[i]);
+            prices[i] = Amounts.toDecimal(priceUnits[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTransferAndValuation(Blackhole blackhole) {
+        int i = next++ & (INPUTS - 1);
+        BigDecimal amount = amounts[i];
+        if (senderBalances[i].compareTo(amount) < 0) {
+            return null;
+        }
+        BigDecimal sender = senderBalances[i].subtract(amount);
+        blackhole.consume(receiverBalances[i].add(amount));
+        blackhole.consume(amount.multiply(GAS_RATE));
+        BigDecimal total = BigDecimal.ZERO;
+        return total.add(sender.multiply(prices[i]));
+    }
+
+    @Benchmark
+    public BigDecimal fixedPointTransferAndValuation(Blackhole blackhole) {
+        int i = next++ & (INPUTS - 1);
+        long amount = amountUnits[i];
+        if (senderUnits[i] < amount) {
+            return null;
+        }
+        long sender = senderUnits[i] - amount;
+        blackhole.consume(Math.addExact(receiverUnits[i], amount));
+        blackhole.consume(Amounts.gasFee(amount));
+        ValueTotal total = new ValueTotal();
+        total.add(Amounts.multiply(sender, priceUnits[i]));
+        return total.toDecimal();
+    }
+}
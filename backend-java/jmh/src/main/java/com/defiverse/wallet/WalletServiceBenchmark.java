@@ -0,0 +1,156 @@
+// JMH benchmarks for the DeFiVerse wallet service hot paths
+// Runs the real Spring context against an embedded H2 database.
+// Run with: java -cp <classpath> org.openjdk.jmh.Main WalletServiceBenchmark -prof gc
+
+package com.defiverse.wallet;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class WalletServiceBenchmark {
+    
+    @Param({"1000"})
+    public int wallets;
+    
+    @Param({"100"})
+    public int historyDepth;
+    
+    private static final String TOKEN = "USDT";
+    private static final BigDecimal SEED_BALANCE = new BigDecimal("1000000000");
+    private static final BigDecimal TRANSFER_AMOUNT = new BigDecimal("0.01");
+    
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private MetricsService metricsService;
+    private String[] addresses;
+    private String journalDir;
+    private String snapshotDir;
+    
+    @Setup(Level.Trial)
+    public void startService() throws IOException {
+        addresses = new String[wallets];
+        for (int i = 0; i < wallets; i++) {
+            addresses[i] = String.format("0x%040x", i + 1);
+        }
+        String url = "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        journalDir = Files.createTempDirectory("defiverse-journal").toString();
+        snapshotDir = Files.createTempDirectory("defiverse-snapshots").toString();
+        
+        // First context creates the schema and seeds through the repositories, so
+        // the second one warms its ledger from a populated database
+        try (ConfigurableApplicationContext seeding = start(url, "create")) {
+            seed(seeding);
+        }
+        context = start(url, "none");
+        walletService = context.getBean(WalletService.class);
+        metricsService = context.getBean(MetricsService.class);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopService() {
+        context.close();
+    }
+    
+    // Every thread drains the same sender wallet, so all transfers contend on one stripe
+    @Benchmark
+    @Threads(8)
+    public TransactionResult transferSingleWalletContention() {
+        return walletService.processTransfer(transfer(addresses[0], randomAddress(1))).join();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public TransactionResult transferUniformRandomWallets() {
+        int from = ThreadLocalRandom.current().nextInt(wallets);
+        int to = (from + 1 + ThreadLocalRandom.current().nextInt(wallets - 1)) % wallets;
+        return walletService.processTransfer(transfer(addresses[from], addresses[to])).join();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public Map<String, Object> walletSummary() {
+        return walletService.getWalletSummary(randomAddress(0));
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public List<Transaction> transactionHistory() {
+        return walletService.getTransactionHistory(randomAddress(0), 50);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void incrementCounter(Blackhole blackhole) {
+        metricsService.incrementCounter("benchmark.transfers");
+        blackhole.consume(metricsService);
+    }
+    
+    private ConfigurableApplicationContext start(String url, String ddlAuto) {
+        SpringApplication application = new SpringApplication(DeFiVerseApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        application.setDefaultProperties(Map.of(
+                "spring.datasource.url", url,
+                "spring.jpa.hibernate.ddl-auto", ddlAuto,
+                "spring.jpa.open-in-view", "false",
+                "defiverse.prices.feed", "none",
+                "defiverse.journal.dir", journalDir,
+                "defiverse.snapshots.dir", snapshotDir,
+                "logging.level.root", "WARN"));
+        return application.run();
+    }
+    
+    private void seed(ConfigurableApplicationContext seeding) {
+        WalletBalanceRepository balances = seeding.getBean(WalletBalanceRepository.class);
+        TransactionRepository transactions = seeding.getBean(TransactionRepository.class);
+        UserRepository users = seeding.getBean(UserRepository.class);
+        List<WalletBalance> rows = new ArrayList<>(wallets);
+        List<User> owners = new ArrayList<>(wallets);
+        for (int i = 0; i < wallets; i++) {
+            rows.add(new WalletBalance(addresses[i], TOKEN, SEED_BALANCE));
+            // Transfers only go to registered wallets; nobody logs in, so the hash is a placeholder
+            owners.add(new User("bench" + i, "bench" + i + "@defiverse.test", "-", addresses[i]));
+        }
+        balances.saveAll(rows);
+        users.saveAll(owners);
+        
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < wallets; i++) {
+            for (int j = 0; j < historyDepth; j++) {
+                Transaction transaction = new Transaction(UUID.randomUUID().toString(), addresses[i],
+                        addresses[(i + j + 1) % wallets], TRANSFER_AMOUNT, TOKEN, BigDecimal.ZERO);
+                transaction.setStatus(TransactionStatus.CONFIRMED);
+                history.add(transaction);
+            }
+        }
+        transactions.saveAll(history);
+    }
+    
+    private String randomAddress(int fromIndex) {
+        return addresses[ThreadLocalRandom.current().nextInt(fromIndex, wallets)];
+    }
+    
+    private static TransferRequest transfer(String from, String to) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAddress(from);
+        request.setToAddress(to);
+        request.setAmount(TRANSFER_AMOUNT);
+        request.setTokenSymbol(TOKEN);
+        return request;
+    }
+}
@@ -0,0 +1,292 @@
+// Concurrency stress runner for the DeFiVerse transfer path
+// Starts the real service on an embedded H2 database and hammers a small set of
+// wallet pairs from many threads at once, half of them sending A -> B while the
+// other half send B -> A, with balances small enough that overdraw attempts are
+// common. Single transfers and crossing batches both go through WalletService.
+// Afterwards per-token supply must equal what the run started with in the ledger,
+// the token aggregates and getTotalSupplyByToken, and no balance may be negative.
+// Run with: java -cp <classpath> com.defiverse.wallet.WalletTransferStress \
+//     --pairs=8 --threads=64 --transfers=20000
+
+package com.defiverse.wallet;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class WalletTransferStress {
+
+    private static final String[] TOKENS = {"USDT", "ETH"};
+    private static final BigDecimal SEED_BALANCE = new BigDecimal("25");
+    private static final String INSUFFICIENT = "Insufficient balance";
+    // Every this many transfers a thread sends a batch holding both directions of a pair
+    private static final int BATCH_EVERY = 10;
+
+    private final int pairs;
+    private final int threads;
+    private final int transfers;
+    private final long seed;
+    private final long timeoutMs;
+
+    private String[] addresses;
+    // Ledger supply per token before the first transfer
+    private final Map<String, BigDecimal> startingSupply = new HashMap<>();
+    private final LongAdder confirmed = new LongAdder();
+    private final LongAdder insufficient = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+    private final AtomicInteger supplyViolations = new AtomicInteger();
+
+    public WalletTransferStress(Map<String, String> options) {
+        this.pairs = Integer.parseInt(options.getOrDefault("pairs", "8"));
+        this.threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        this.transfers = Integer.parseInt(options.getOrDefault("transfers", "20000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.timeoutMs = Long.parseLong(options.getOrDefault("timeout-ms", "120000"));
+        if (pairs < 1 || threads < 2 || transfers < 1 || timeoutMs <= 0) {
+            throw new IllegalArgumentException("pairs and transfers must be positive, threads at least 2");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        boolean conserved = new WalletTransferStress(options).run();
+        System.exit(conserved ? 0 : 1);
+    }
+
+    // Returns whether every invariant held
+    public boolean run() throws Exception {
+        addresses = new String[pairs * 2];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = String.format("0x%040x", i + 1);
+        }
+
+        String url = "jdbc:h2:mem:stress-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String journalDir = Files.createTempDirectory("defiverse-journal").toString();
+        String snapshotDir = Files.createTempDirectory("defiverse-snapshots").toString();
+
+        // Seed in a throwaway context so the measured one warms its ledger from the database
+        try (ConfigurableApplicationContext seeding = start(url, "create", journalDir, snapshotDir)) {
+            seed(seeding);
+        }
+        try (ConfigurableApplicationContext context = start(url, "none", journalDir, snapshotDir)) {
+            BalanceLedger ledger = context.getBean(BalanceLedger.class);
+            for (String token : TOKENS) {
+                startingSupply.put(token, ledger.getTotalSupply(token));
+            }
+            hammer(context);
+            return checkInvariants(context);
+        }
+    }
+
+    private ConfigurableApplicationContext start(String url, String ddlAuto, String journalDir, String snapshotDir) {
+        SpringApplication application = new SpringApplication(DeFiVerseApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run(
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jpa.open-in-view=false",
+                "--defiverse.prices.feed=none",
+                "--defiverse.journal.dir=" + journalDir,
+                "--defiverse.snapshots.dir=" + snapshotDir,
+                "--logging.level.root=WARN");
+    }
+
+    private void seed(ConfigurableApplicationContext seeding) {
+        WalletBalanceRepository balances = seeding.getBean(WalletBalanceRepository.class);
+        UserRepository userRepository = seeding.getBean(UserRepository.class);
+        String passwordHash = new BCryptPasswordEncoder().encode("stress-test");
+        List<WalletBalance> rows = new ArrayList<>();
+        List<User> owners = new ArrayList<>();
+        for (int i = 0; i < addresses.length; i++) {
+            for (String token : TOKENS) {
+                rows.add(new WalletBalance(addresses[i], token, SEED_BALANCE));
+            }
+            owners.add(new User("stress" + i, "stress" + i + "@defiverse.test", passwordHash, addresses[i]));
+        }
+        balances.saveAll(rows);
+        userRepository.saveAll(owners);
+        System.out.println("🌱 Seeded " + addresses.length + " wallets with " + SEED_BALANCE + " of each of "
+                + String.join(", ", TOKENS));
+    }
+
+    // Even threads send A -> B and odd threads B -> A over the same pairs, all released
+    // together. A sampler sums the ledger meanwhile, since a torn transfer would show
+    // up there as supply briefly appearing or vanishing.
+    private void hammer(ConfigurableApplicationContext context) throws InterruptedException {
+        WalletService walletService = context.getBean(WalletService.class);
+        BalanceLedger ledger = context.getBean(BalanceLedger.class);
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger remaining = new AtomicInteger(transfers);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            boolean forward = t % 2 == 0;
+            SplittableRandom random = new SplittableRandom(seed + t);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                    int done = 0;
+                    while (remaining.getAndDecrement() > 0) {
+                        int pair = random.nextInt(pairs);
+                        String token = TOKENS[random.nextInt(TOKENS.length)];
+                        if (++done % BATCH_EVERY == 0) {
+                            sendBatch(walletService, pair, token, random);
+                        } else {
+                            send(walletService, transfer(pair, forward, token, random));
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    recordFailure(e.toString());
+                }
+            });
+        }
+        workers.shutdown();
+
+        Thread sampler = new Thread(() -> {
+            while (!workers.isTerminated()) {
+                for (String token : TOKENS) {
+                    if (ledger.getTotalSupply(token).compareTo(startingSupply.get(token)) != 0) {
+                        supplyViolations.incrementAndGet();
+                    }
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }, "supply-sampler");
+        sampler.start();
+
+        System.out.printf("🔀 %d threads sending %d crossing transfers over %d wallet pairs%n", threads, transfers, pairs);
+        long startedAt = System.nanoTime();
+        start.countDown();
+        if (!workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+            throw new IllegalStateException("Stress run did not finish within " + timeoutMs + " ms");
+        }
+        sampler.join();
+        long elapsedMs = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        System.out.printf("📊 %d confirmed, %d insufficient balance, %d rejected, %d failed in %d ms (%.0f transfers/s)%n",
+                confirmed.sum(), insufficient.sum(), rejected.sum(), failed.sum(), elapsedMs,
+                (confirmed.sum() + insufficient.sum()) * 1000.0 / elapsedMs);
+    }
+
+    private void send(WalletService walletService, TransferRequest request) {
+        try {
+            record(walletService.processTransfer(request).join());
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+        }
+    }
+
+    // Both directions of one pair in a single batch, so the batch path crosses itself
+    // as well as the single transfers running beside it
+    private void sendBatch(WalletService walletService, int pair, String token, SplittableRandom random) {
+        List<TransferRequest> batch = List.of(transfer(pair, true, token, random), transfer(pair, false, token, random));
+        for (TransactionResult result : walletService.processTransfers(batch)) {
+            record(result);
+        }
+    }
+
+    private void record(TransactionResult result) {
+        if (result.getStatus() == TransactionStatus.CONFIRMED) {
+            confirmed.increment();
+        } else if (INSUFFICIENT.equals(result.getMessage())) {
+            insufficient.increment();
+        } else {
+            recordFailure(result.getMessage());
+        }
+    }
+
+    private void recordFailure(String message) {
+        failed.increment();
+        firstFailure.compareAndSet(null, message);
+    }
+
+    // Amounts up to a fifth of the seed, so a wallet drained by a run of one-way
+    // transfers starts refusing the next ones
+    private TransferRequest transfer(int pair, boolean forward, String token, SplittableRandom random) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAddress(addresses[2 * pair + (forward ? 0 : 1)]);
+        request.setToAddress(addresses[2 * pair + (forward ? 1 : 0)]);
+        request.setAmount(BigDecimal.valueOf(random.nextInt(1, 501), 2));
+        request.setTokenSymbol(token);
+        return request;
+    }
+
+    // Supply per token must match the start in the ledger, the aggregates and the
+    // database, every balance must be non-negative, and the database must agree
+    // with the ledger wallet by wallet
+    private boolean checkInvariants(ConfigurableApplicationContext context) {
+        BalanceLedger ledger = context.getBean(BalanceLedger.class);
+        TokenAggregates aggregates = context.getBean(TokenAggregates.class);
+        WalletBalanceRepository balances = context.getBean(WalletBalanceRepository.class);
+        TransactionJournal journal = context.getBean(TransactionJournal.class);
+        JournalProjector projector = context.getBean(JournalProjector.class);
+
+        // wallet_balances is projected from the journal, so wait for every durable record
+        long target = journal.getDurableSeq();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (projector.getProjectedSeq() < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Projection stopped at " + projector.getProjectedSeq() + " of " + target);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        boolean held = true;
+        for (String token : TOKENS) {
+            BigDecimal inLedger = ledger.getTotalSupply(token);
+            BigDecimal inAggregates = aggregates.getTotalSupply(token);
+            BigDecimal inDatabase = ReadWriteRoutingDataSource.onPrimary(() -> balances.getTotalSupplyByToken(token));
+            BigDecimal expected = startingSupply.get(token);
+            boolean conserved = expected.compareTo(inLedger) == 0
+                    && expected.compareTo(inAggregates) == 0
+                    && inDatabase != null && expected.compareTo(inDatabase) == 0;
+            System.out.printf("%s %s supply at start %s, ledger %s, aggregates %s, database %s%n",
+                    conserved ? "✅" : "❌", token, expected, inLedger, inAggregates, inDatabase);
+            held &= conserved;
+        }
+
+        int negative = 0;
+        int mismatches = 0;
+        for (WalletBalance row : ReadWriteRoutingDataSource.onPrimary(balances::findAll)) {
+            long inLedger = ledger.getBalanceUnits(row.getWalletAddress(), row.getTokenSymbol());
+            if (row.getBalance().signum() < 0 || inLedger < 0) {
+                negative++;
+                System.out.printf("❌ %s holds %s %s in the database, %s in the ledger%n", row.getWalletAddress(),
+                        row.getBalance(), row.getTokenSymbol(), Amounts.toDecimal(inLedger));
+            } else if (Amounts.toUnits(row.getBalance()) != inLedger && mismatches++ < 10) {
+                System.out.printf("❌ %s %s is %s in the database but %s in the ledger%n", row.getWalletAddress(),
+                        row.getTokenSymbol(), row.getBalance(), Amounts.toDecimal(inLedger));
+            }
+        }
+
+        held &= negative == 0 && mismatches == 0 && supplyViolations.get() == 0 && failed.sum() == 0;
+        System.out.printf("%s %d negative balances, %d ledger/database mismatches, %d torn supply samples, %d unexpected failures%s%n",
+                held ? "✅" : "❌", negative, mismatches, supplyViolations.get(), failed.sum(),
+                firstFailure.get() != null ? " (first: " + firstFailure.get() + ")" : "");
+        return held;
+    }
+}
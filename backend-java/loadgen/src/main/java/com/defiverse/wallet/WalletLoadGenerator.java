@@ -0,0 +1,495 @@
+// Open-loop load generator and soak test for the DeFiVerse wallet REST API
+// Starts the real service on an embedded H2 database, seeds users and wallets
+// through the repositories, then replays a weighted mix of /transfer, /balance and
+// /transactions calls at a fixed arrival rate with Zipf-skewed wallet choice.
+// Latency is measured from each request's scheduled send time, so a stalled server
+// shows up in the percentiles instead of quietly lowering the offered rate.
+// Run with: java -cp <classpath> com.defiverse.wallet.WalletLoadGenerator \
+//     --users=1000 --rate=500 --warmup=10 --duration=60 --mix=transfer:20,balance:60,transactions:20
+
+package com.defiverse.wallet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+public class WalletLoadGenerator {
+
+    private static final String TOKEN = "USDT";
+    private static final String PASSWORD = "load-test";
+    private static final BigDecimal SEED_BALANCE = new BigDecimal("1000000");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    enum Operation { TRANSFER, BALANCE, TRANSACTIONS }
+
+    private final int users;
+    private final double rate;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final double zipfExponent;
+    private final long seed;
+    private final long timeoutMs;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private String[] addresses;
+    private String[] tokens;
+    private double[] zipfCdf;
+    private HttpClient client;
+    private String baseUrl;
+
+    // Net effect of every transfer the API confirmed, per wallet. Wallets with a
+    // transfer whose outcome never came back are excluded from the per-wallet check.
+    private AtomicLongArray expectedDeltaUnits;
+    private final Set<Integer> unresolvedWallets = Collections.synchronizedSet(new HashSet<>());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Sender and receiver of each transfer not yet settled, by request number
+    private final Map<Long, int[]> unsettledTransfers = new ConcurrentHashMap<>();
+    private final AtomicLong transferNumbers = new AtomicLong();
+
+    public WalletLoadGenerator(Map<String, String> options) {
+        this.users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "500"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.zipfExponent = Double.parseDouble(options.getOrDefault("zipf", "1.1"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.timeoutMs = Long.parseLong(options.getOrDefault("timeout-ms", "5000"));
+        if (users < 2 || rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("users must be at least 2, rate and duration positive, warmup not negative");
+        }
+
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "transfer:20,balance:60,transactions:20"));
+        this.operations = mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || arg.indexOf('=') < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        boolean conserved = new WalletLoadGenerator(options).run();
+        System.exit(conserved ? 0 : 1);
+    }
+
+    // Returns whether balances were conserved across the run
+    public boolean run() throws Exception {
+        addresses = new String[users];
+        for (int i = 0; i < users; i++) {
+            addresses[i] = String.format("0x%040x", i + 1);
+        }
+        zipfCdf = zipfCdf(users, zipfExponent);
+        expectedDeltaUnits = new AtomicLongArray(users);
+
+        String url = "jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        String journalDir = Files.createTempDirectory("defiverse-journal").toString();
+        String snapshotDir = Files.createTempDirectory("defiverse-snapshots").toString();
+
+        // Seed in a throwaway context so the serving one warms its ledger and user
+        // index from a populated database, the way a restarted node would
+        try (ConfigurableApplicationContext seeding = start(url, "create", journalDir, snapshotDir, WebApplicationType.NONE)) {
+            seed(seeding);
+        }
+        try (ConfigurableApplicationContext context = start(url, "none", journalDir, snapshotDir, WebApplicationType.SERVLET)) {
+            baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/api/v1";
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .connectTimeout(Duration.ofMillis(timeoutMs))
+                    .build();
+
+            login();
+            System.out.printf("🚦 Offering %.0f req/s across %d wallets (zipf %.2f), %ds warmup then %ds measured%n",
+                    rate, users, zipfExponent, warmupSeconds, durationSeconds);
+            SplittableRandom random = new SplittableRandom(seed);
+            if (warmupSeconds > 0) {
+                drive(random, warmupSeconds, new RunStats());
+            }
+            RunStats stats = new RunStats();
+            drive(random, durationSeconds, stats);
+            awaitInFlight();
+            stats.print(durationSeconds);
+            return checkConservation(context);
+        }
+    }
+
+    private ConfigurableApplicationContext start(String url, String ddlAuto, String journalDir, String snapshotDir,
+                                                 WebApplicationType webApplicationType) {
+        SpringApplication application = new SpringApplication(DeFiVerseApplication.class);
+        application.setWebApplicationType(webApplicationType);
+        // Passed as arguments so an application.properties on the classpath cannot
+        // point the run at a shared database or recreate the seeded schema
+        return application.run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+                "--spring.jpa.open-in-view=false",
+                "--defiverse.prices.feed=none",
+                "--defiverse.journal.dir=" + journalDir,
+                "--defiverse.snapshots.dir=" + snapshotDir,
+                "--logging.level.root=WARN");
+    }
+
+    private void seed(ConfigurableApplicationContext seeding) {
+        WalletBalanceRepository balances = seeding.getBean(WalletBalanceRepository.class);
+        UserRepository userRepository = seeding.getBean(UserRepository.class);
+        // One hash for everyone; BCrypt per user would dominate seeding
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<WalletBalance> rows = new ArrayList<>(users);
+        List<User> owners = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            rows.add(new WalletBalance(addresses[i], TOKEN, SEED_BALANCE));
+            owners.add(new User("load" + i, "load" + i + "@defiverse.test", passwordHash, addresses[i]));
+        }
+        balances.saveAll(rows);
+        userRepository.saveAll(owners);
+        System.out.println("🌱 Seeded " + users + " users with " + SEED_BALANCE + " " + TOKEN + " each");
+    }
+
+    // Logins run BCrypt server-side, so spread them over the cores rather than one at a time
+    private void login() {
+        tokens = new String[users];
+        long startedAt = System.nanoTime();
+        IntStream.range(0, users).parallel().forEach(i -> {
+            try {
+                String body = objectMapper.writeValueAsString(Map.of("username", "load" + i, "password", PASSWORD));
+                HttpResponse<String> response = client.send(post("/auth/login", body), HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Login for load" + i + " returned " + response.statusCode());
+                }
+                tokens[i] = objectMapper.readTree(response.body()).path("token").asText();
+            } catch (IOException e) {
+                throw new IllegalStateException("Login for load" + i + " failed", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during login", e);
+            }
+        });
+        System.out.printf("🔑 Logged in %d users in %d ms%n", users,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    // Open loop: request i is due at start + i / rate whether or not earlier ones
+    // have answered. A dispatcher that falls behind sends late but still charges
+    // the delay to the request, which is the coordinated-omission correction.
+    private void drive(SplittableRandom random, int seconds, RunStats stats) throws IOException {
+        long startedAt = System.nanoTime();
+        long endAt = startedAt + TimeUnit.SECONDS.toNanos(seconds);
+        for (long i = 0; ; i++) {
+            long intendedAt = startedAt + (long) (i * 1_000_000_000.0 / rate);
+            if (intendedAt - endAt >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = intendedAt - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(nextOperation(random), random, intendedAt, stats);
+        }
+    }
+
+    private void send(Operation operation, SplittableRandom random, long intendedAt, RunStats stats) throws IOException {
+        int from = nextWallet(random);
+        HttpRequest request;
+        int to = -1;
+        long amountUnits = 0;
+        switch (operation) {
+            case TRANSFER:
+                do {
+                    to = nextWallet(random);
+                } while (to == from);
+                BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 101), 2);
+                amountUnits = Amounts.toUnits(amount);
+                TransferRequest transfer = new TransferRequest();
+                transfer.setFromAddress(addresses[from]);
+                transfer.setToAddress(addresses[to]);
+                transfer.setAmount(amount);
+                transfer.setTokenSymbol(TOKEN);
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/wallet/transfer"))
+                        .timeout(Duration.ofMillis(timeoutMs))
+                        .header("Content-Type", "application/json")
+                        .header("Authorization", "Bearer " + tokens[from])
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(transfer)))
+                        .build();
+                break;
+            case BALANCE:
+                request = get("/wallet/balance/" + addresses[from]);
+                break;
+            default:
+                request = get("/wallet/transactions/" + addresses[from] + "?limit=20");
+                break;
+        }
+
+        int sender = from;
+        int receiver = to;
+        long units = amountUnits;
+        long transferNumber = operation == Operation.TRANSFER ? transferNumbers.incrementAndGet() : 0;
+        if (operation == Operation.TRANSFER) {
+            unsettledTransfers.put(transferNumber, new int[] {sender, receiver});
+        }
+        long sentAt = System.nanoTime();
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            long completedAt = System.nanoTime();
+            try {
+                boolean ok = error == null && response.statusCode() / 100 == 2;
+                if (operation == Operation.TRANSFER) {
+                    ok = settleTransfer(response, error, sender, receiver, units);
+                    // Only after settling, so the check never sees a transfer in neither place
+                    unsettledTransfers.remove(transferNumber);
+                }
+                stats.record(operation, intendedAt, sentAt, completedAt, ok, error != null);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    // Returns whether the transfer was confirmed
+    private boolean settleTransfer(HttpResponse<String> response, Throwable error, int from, int to, long units) {
+        if (error != null || response.statusCode() >= 500) {
+            // The transfer may or may not have been applied
+            unresolvedWallets.add(from);
+            unresolvedWallets.add(to);
+            return false;
+        }
+        try {
+            JsonNode result = objectMapper.readTree(response.body());
+            if (response.statusCode() == 200 && TransactionStatus.CONFIRMED.name().equals(result.path("status").asText())) {
+                expectedDeltaUnits.addAndGet(from, -units);
+                expectedDeltaUnits.addAndGet(to, units);
+                return true;
+            }
+        } catch (IOException e) {
+            unresolvedWallets.add(from);
+            unresolvedWallets.add(to);
+        }
+        return false;
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs * 2);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        if (inFlight.get() > 0) {
+            System.out.println("⚠️ " + inFlight.get() + " requests still outstanding after the run");
+        }
+        // Their outcome is unknown, and a late answer may still land mid-check
+        for (int[] transfer : unsettledTransfers.values()) {
+            unresolvedWallets.add(transfer[0]);
+            unresolvedWallets.add(transfer[1]);
+        }
+    }
+
+    // Total supply must equal what was seeded, and every wallet must hold its seed
+    // plus the transfers the API confirmed, in both the ledger and the database
+    private boolean checkConservation(ConfigurableApplicationContext context) {
+        BalanceLedger ledger = context.getBean(BalanceLedger.class);
+        WalletBalanceRepository balances = context.getBean(WalletBalanceRepository.class);
+        TransactionJournal journal = context.getBean(TransactionJournal.class);
+        JournalProjector projector = context.getBean(JournalProjector.class);
+
+        // wallet_balances is projected from the journal, so wait until it holds every
+        // record durable now, which covers every transfer that has been answered
+        long target = journal.getDurableSeq();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs * 2);
+        while (projector.getProjectedSeq() < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Projection stopped at " + projector.getProjectedSeq() + " of " + target);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        BigDecimal seeded = SEED_BALANCE.multiply(BigDecimal.valueOf(users));
+        BigDecimal ledgerSupply = ledger.getTotalSupply(TOKEN);
+        Map<String, BigDecimal> stored = new HashMap<>();
+        for (WalletBalance row : ReadWriteRoutingDataSource.onPrimary(balances::findAll)) {
+            if (TOKEN.equals(row.getTokenSymbol())) {
+                stored.put(row.getWalletAddress(), row.getBalance());
+            }
+        }
+        BigDecimal storedSupply = stored.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        int mismatches = 0;
+        long seedUnits = Amounts.toUnits(SEED_BALANCE);
+        for (int i = 0; i < users; i++) {
+            if (unresolvedWallets.contains(i)) {
+                continue;
+            }
+            long expected = seedUnits + expectedDeltaUnits.get(i);
+            long inLedger = ledger.getBalanceUnits(addresses[i], TOKEN);
+            long inDatabase = Amounts.toUnits(stored.getOrDefault(addresses[i], BigDecimal.ZERO));
+            if (inLedger != expected || inDatabase != expected) {
+                if (mismatches++ < 10) {
+                    System.out.printf("❌ %s expected %s, ledger %s, database %s%n", addresses[i],
+                            Amounts.toDecimal(expected), Amounts.toDecimal(inLedger), Amounts.toDecimal(inDatabase));
+                }
+            }
+        }
+
+        boolean conserved = seeded.compareTo(ledgerSupply) == 0 && seeded.compareTo(storedSupply) == 0 && mismatches == 0;
+        System.out.printf("%s Supply seeded %s, ledger %s, database %s; %d wallet mismatches, %d wallets unchecked%n",
+                conserved ? "✅" : "❌", seeded, ledgerSupply, storedSupply, mismatches, unresolvedWallets.size());
+        return conserved;
+    }
+
+    private Operation nextOperation(SplittableRandom random) {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    // Wallet i has weight 1 / (i + 1)^s, so low indices are the hot wallets
+    private int nextWallet(SplittableRandom random) {
+        int index = Arrays.binarySearch(zipfCdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, users - 1);
+    }
+
+    static double[] zipfCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int i = 0; i < n; i++) {
+            total += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            if (entry.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like transfer:20, got " + part);
+            }
+            int weight = Integer.parseInt(entry[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + part);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(entry[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofMillis(timeoutMs)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(timeoutMs))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    // Per-operation results. corrected is measured from the scheduled send time,
+    // service from when the request actually left; a gap between them means the
+    // generator or the server fell behind the offered rate.
+    static final class RunStats {
+        final Map<Operation, OperationStats> byOperation = new EnumMap<>(Operation.class);
+        final LatencyHistogram sendDelay = new LatencyHistogram();
+
+        RunStats() {
+            for (Operation operation : Operation.values()) {
+                byOperation.put(operation, new OperationStats());
+            }
+        }
+
+        void record(Operation operation, long intendedAt, long sentAt, long completedAt, boolean ok, boolean error) {
+            OperationStats stats = byOperation.get(operation);
+            stats.corrected.record(completedAt - intendedAt);
+            stats.service.record(completedAt - sentAt);
+            (ok ? stats.ok : error ? stats.errors : stats.failed).increment();
+            sendDelay.record(sentAt - intendedAt);
+        }
+
+        void print(int seconds) {
+            System.out.println("📊 Results over " + seconds + "s (latencies in ms)");
+            System.out.printf("   %-12s %8s %8s %7s %7s %9s %8s %8s %8s %8s %8s%n",
+                    "operation", "count", "ok", "failed", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max");
+            long total = 0;
+            for (Map.Entry<Operation, OperationStats> entry : byOperation.entrySet()) {
+                OperationStats stats = entry.getValue();
+                long count = stats.corrected.getCount();
+                if (count == 0) {
+                    continue;
+                }
+                total += count;
+                String name = entry.getKey().name().toLowerCase();
+                printRow(name, stats.corrected, stats.ok.sum(), stats.failed.sum(), stats.errors.sum(), seconds);
+                printRow("  service", stats.service, -1, -1, -1, seconds);
+            }
+            System.out.printf("   %d requests completed, %.1f req/s; dispatcher send delay p99 %.3f ms, max %.3f ms%n",
+                    total, (double) total / seconds, millis(sendDelay.valueAtQuantile(0.99)), millis(sendDelay.getMax()));
+        }
+
+        private static void printRow(String name, LatencyHistogram histogram, long ok, long failed, long errors, int seconds) {
+            long[] values = new long[QUANTILES.length];
+            histogram.valuesAtQuantiles(QUANTILES, values);
+            String counts = ok < 0
+                    ? String.format("%8s %8s %7s %7s %9s", "", "", "", "", "")
+                    : String.format("%8d %8d %7d %7d %9.1f", histogram.getCount(), ok, failed, errors,
+                            (double) histogram.getCount() / seconds);
+            System.out.printf("   %-12s %s %8.2f %8.2f %8.2f %8.2f %8.2f%n", name, counts,
+                    millis(values[0]), millis(values[1]), millis(values[2]), millis(values[3]), millis(histogram.getMax()));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    static final class OperationStats {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram service = new LatencyHistogram();
+        final LongAdder ok = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder errors = new LongAdder();
+    }
+}
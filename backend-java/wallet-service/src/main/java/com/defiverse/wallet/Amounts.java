@@ -0,0 +1,70 @@
+package com.defiverse.wallet;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Fixed-point Amounts
+// Hot-path token amounts and prices are longs scaled by 10^SCALE. BigDecimal is only
+// used at the JPA/JSON boundary. Products go through a 128-bit intermediate.
+public final class Amounts {
+    
+    public static final int SCALE = 8;
+    public static final long ONE = 100_000_000L;
+    
+    private static final long LIMB_MASK = 0xFFFF_FFFFL;
+    
+    private Amounts() {}
+    
+    public static long toUnits(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimals and fit the ledger range");
+        }
+    }
+    
+    // For values we must accept as stored (e.g. legacy rows), rounding down so supply never grows
+    public static long toUnitsRoundingDown(BigDecimal amount) {
+        try {
+            return amount.setScale(SCALE, RoundingMode.DOWN).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount does not fit the ledger range");
+        }
+    }
+    
+    public static BigDecimal toDecimal(long units) {
+        return BigDecimal.valueOf(units, SCALE);
+    }
+    
+    // 0.1% of the amount, truncated to whole units
+    public static long gasFee(long amountUnits) {
+        return amountUnits / 1000;
+    }
+    
+    // amountUnits * priceUnits / ONE, exact for non-negative inputs. Throws
+    // ArithmeticException when the result does not fit in a long.
+    public static long multiply(long amountUnits, long priceUnits) {
+        if (amountUnits < 0 || priceUnits < 0) {
+            throw new ArithmeticException("Negative operand");
+        }
+        long high = Math.multiplyHigh(amountUnits, priceUnits);
+        long low = amountUnits * priceUnits;
+        if (high == 0 && low >= 0) {
+            return low / ONE;
+        }
+        
+        // Long division of the 128-bit product by ONE over 32-bit limbs. The result
+        // only fits when high < ONE, and ONE < 2^32 keeps every partial dividend in range.
+        if (high >= ONE) {
+            throw new ArithmeticException("Value overflows fixed-point range");
+        }
+        long dividend = (high << 32) | (low >>> 32);
+        long upper = dividend / ONE;
+        dividend = ((dividend % ONE) << 32) | (low & LIMB_MASK);
+        long lower = dividend / ONE;
+        if (upper > Integer.MAX_VALUE) {
+            throw new ArithmeticException("Value overflows fixed-point range");
+        }
+        return (upper << 32) | lower;
+    }
+}
@@ -0,0 +1,286 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.DependsOn;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Balance History
+// Answers what a wallet held, and what it was worth, at time T: the nearest snapshot
+// at or before T plus the wallet's transfers since, which span at most one interval.
+// Snapshots cut on transaction createdAt. Each adds the transfers created in
+// (previous, current], summed by the database once projection has caught up with
+// everything journaled by then. The first is read from wallet_balances at startup,
+// before any transfer runs. Every keyframe-every-th snapshot holds full balances.
+@Service
+@DependsOn("journalProjector")
+public class BalanceHistory {
+    
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionJournal journal;
+    
+    @Autowired
+    private JournalProjector journalProjector;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.snapshots.dir:data/snapshots}")
+    private String directory;
+    
+    @Value("${defiverse.snapshots.interval-ms:3600000}")
+    private long intervalMs;
+    
+    // How long after a cut transfers created before it may still be reaching the journal
+    @Value("${defiverse.snapshots.settle-ms:10000}")
+    private long settleMs;
+    
+    @Value("${defiverse.snapshots.keyframe-every:24}")
+    private int keyframeEvery;
+    
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    
+    private final List<BalanceSnapshot> snapshots = new CopyOnWriteArrayList<>();
+    private final AtomicLong encodedBytes = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private Path dir;
+    private long awaitedSeq = -1; // scheduler thread only
+    private LatencyHistogram queryLatency;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        queryLatency = metricsService.histogram("history.query");
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SNAPSHOT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        boolean broken = false;
+        for (Path file : files) {
+            if (!broken) {
+                try {
+                    BalanceSnapshot snapshot = BalanceSnapshot.fromBytes(Files.readAllBytes(file));
+                    if (snapshots.isEmpty() && !snapshot.isKeyframe()) {
+                        throw new IOException("History does not start with a keyframe");
+                    }
+                    snapshots.add(snapshot);
+                    encodedBytes.addAndGet(snapshot.getEncodedSize());
+                    continue;
+                } catch (IOException e) {
+                    System.err.println("⚠️ Balance history ends at " + file.getFileName() + ": " + e.getMessage());
+                    broken = true;
+                }
+            }
+            // Later snapshots are deltas on top of the unreadable one
+            Files.delete(file);
+        }
+        
+        if (snapshots.isEmpty()) {
+            SortedMap<String, SortedMap<String, Long>> rows = new TreeMap<>();
+            for (WalletBalance row : ReadWriteRoutingDataSource.onPrimary(walletBalanceRepository::findAll)) {
+                rows.computeIfAbsent(row.getWalletAddress(), address -> new TreeMap<>())
+                        .put(row.getTokenSymbol(), BalanceLedger.storedUnits(row));
+            }
+            append(BalanceSnapshot.encode(System.currentTimeMillis(), true, rows, priceBook.snapshot()));
+        }
+        metricsService.setGauge("history.snapshot_bytes", encodedBytes.get());
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-snapshots");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMs = Math.max(50, Math.min(intervalMs, settleMs));
+        scheduler.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        System.out.println("🗂️ Balance history loaded " + snapshots.size() + " snapshots");
+    }
+    
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+    }
+    
+    // Throws IllegalArgumentException when at is in the future or before the first snapshot
+    public Map<String, Object> getBalancesAt(String walletAddress, LocalDateTime at) {
+        long startedAt = System.nanoTime();
+        long atMillis = Timestamp.valueOf(at).getTime();
+        if (atMillis > System.currentTimeMillis()) {
+            throw new IllegalArgumentException("Time must not be in the future");
+        }
+        int index = floorIndex(atMillis);
+        if (index < 0) {
+            throw new IllegalArgumentException("No balance history before " + toDateTime(snapshots.get(0).getTakenAtMillis()));
+        }
+        
+        Map<String, Long> units = new TreeMap<>();
+        for (int i = keyframeIndex(index); i <= index; i++) {
+            snapshots.get(i).addTo(walletAddress, units);
+        }
+        BalanceSnapshot base = snapshots.get(index);
+        LocalDateTime after = toDateTime(base.getTakenAtMillis());
+        List<Transaction> sent = transactionRepository.findSentBetween(walletAddress, after, at);
+        List<Transaction> received = transactionRepository.findReceivedBetween(walletAddress, after, at);
+        for (Transaction transaction : sent) {
+            units.merge(transaction.getTokenSymbol(), -Amounts.toUnits(transaction.getAmount()), Long::sum);
+        }
+        for (Transaction transaction : received) {
+            units.merge(transaction.getTokenSymbol(), Amounts.toUnits(transaction.getAmount()), Long::sum);
+        }
+        
+        // Valued at the prices recorded with the snapshot
+        ValueTotal total = new ValueTotal();
+        Map<String, Object> balances = new LinkedHashMap<>();
+        units.forEach((token, amount) -> {
+            if (amount == 0) {
+                return;
+            }
+            long price = base.priceUnitsOf(token);
+            BigDecimal value;
+            try {
+                long valueUnits = Amounts.multiply(amount, price);
+                total.add(valueUnits);
+                value = Amounts.toDecimal(valueUnits);
+            } catch (ArithmeticException e) {
+                value = Amounts.toDecimal(amount).multiply(Amounts.toDecimal(price));
+                total.add(value);
+            }
+            Map<String, Object> balance = new LinkedHashMap<>();
+            balance.put("balance", Amounts.toDecimal(amount));
+            balance.put("price", Amounts.toDecimal(price));
+            balance.put("value", value);
+            balances.put(token, balance);
+        });
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walletAddress", walletAddress);
+        result.put("at", at);
+        result.put("snapshotAt", after);
+        result.put("replayedTransactions", sent.size() + received.size());
+        result.put("balances", balances);
+        result.put("totalValue", total.toDecimal());
+        queryLatency.record(System.nanoTime() - startedAt);
+        return result;
+    }
+    
+    private void tick() {
+        try {
+            BalanceSnapshot last = snapshots.get(snapshots.size() - 1);
+            long cut = last.getTakenAtMillis() + intervalMs;
+            if (System.currentTimeMillis() < cut + settleMs) {
+                return;
+            }
+            // Transfers created before the cut are journaled by now; wait until they are projected
+            if (awaitedSeq < 0) {
+                awaitedSeq = journal.getDurableSeq();
+            }
+            if (journalProjector.getProjectedSeq() < awaitedSeq) {
+                return;
+            }
+            awaitedSeq = -1;
+            append(next(last, cut));
+        } catch (Exception e) {
+            System.err.println("❌ Balance snapshot failed: " + e.getMessage());
+        }
+    }
+    
+    private BalanceSnapshot next(BalanceSnapshot last, long cut) {
+        LocalDateTime after = toDateTime(last.getTakenAtMillis());
+        LocalDateTime until = toDateTime(cut);
+        SortedMap<String, SortedMap<String, Long>> changes = new TreeMap<>();
+        // Projection was awaited on the primary, which a replica may not have caught up with
+        List<Object[]> sent = ReadWriteRoutingDataSource.onPrimary(() -> transactionRepository.sumSentBetween(after, until));
+        List<Object[]> received = ReadWriteRoutingDataSource.onPrimary(() -> transactionRepository.sumReceivedBetween(after, until));
+        for (Object[] row : sent) {
+            addChange(changes, (String) row[0], (String) row[1], -Amounts.toUnits((BigDecimal) row[2]));
+        }
+        for (Object[] row : received) {
+            addChange(changes, (String) row[0], (String) row[1], Amounts.toUnits((BigDecimal) row[2]));
+        }
+        if (snapshots.size() % keyframeEvery != 0) {
+            return BalanceSnapshot.encode(cut, false, changes, priceBook.snapshot());
+        }
+        
+        // Keyframe: rebuild full balances from the previous keyframe and its deltas
+        SortedMap<String, SortedMap<String, Long>> rows = changes;
+        for (int i = keyframeIndex(snapshots.size() - 1); i < snapshots.size(); i++) {
+            snapshots.get(i).forEach((walletAddress, tokenSymbol, units) -> addChange(rows, walletAddress, tokenSymbol, units));
+        }
+        return BalanceSnapshot.encode(cut, true, rows, priceBook.snapshot());
+    }
+    
+    private void append(BalanceSnapshot snapshot) throws IOException {
+        Path file = dir.resolve(String.format("%020d%s", snapshot.getTakenAtMillis(), SNAPSHOT_SUFFIX));
+        Path temp = dir.resolve(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(snapshot.toBytes()));
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshots.add(snapshot);
+        metricsService.incrementCounter("history.snapshots");
+        metricsService.setGauge("history.snapshot_bytes", encodedBytes.addAndGet(snapshot.getEncodedSize()));
+    }
+    
+    private int floorIndex(long atMillis) {
+        int low = 0;
+        int high = snapshots.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (snapshots.get(mid).getTakenAtMillis() <= atMillis) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+    
+    private int keyframeIndex(int index) {
+        while (!snapshots.get(index).isKeyframe()) {
+            index--;
+        }
+        return index;
+    }
+    
+    private static void addChange(SortedMap<String, SortedMap<String, Long>> rows, String walletAddress,
+                                  String tokenSymbol, long units) {
+        rows.computeIfAbsent(walletAddress, address -> new TreeMap<>()).merge(tokenSymbol, units, Long::sum);
+    }
+    
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return new Timestamp(epochMillis).toLocalDateTime();
+    }
+}
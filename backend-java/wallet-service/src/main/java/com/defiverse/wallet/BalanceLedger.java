@@ -0,0 +1,285 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.DependsOn;
+import javax.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory Balance Ledger
+// Authoritative (walletAddress, tokenSymbol) balances in fixed-point units,
+// sharded by address hash. The ledger never writes wallet_balances itself:
+// JournalProjector persists balance changes from the transaction journal.
+// Transfers lock their shard stripes (sender, receiver and any fee sink) in
+// index order, so they are atomic and deadlock-free. A transfer's journal record is written under the same
+// stripes, so the journal orders conflicting transfers the way the ledger did.
+@Service
+@DependsOn("journalProjector") // journal replay must reach wallet_balances before the ledger warms
+public class BalanceLedger {
+    
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+    
+    @Value("${defiverse.ledger.shards:16}")
+    private int shardCount;
+    
+    private final List<BalanceListener> listeners = new CopyOnWriteArrayList<>();
+    private LedgerShard[] shards;
+    
+    @PostConstruct
+    public void warmUp() {
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i);
+        }
+        
+        // Load every persisted balance before serving traffic, from the primary since
+        // a lagging replica would warm stale balances
+        int loaded = 0;
+        for (WalletBalance row : ReadWriteRoutingDataSource.onPrimary(walletBalanceRepository::findAll)) {
+            LedgerEntry entry = shardFor(row.getWalletAddress())
+                    .entryFor(row.getWalletAddress(), row.getTokenSymbol());
+            entry.units = storedUnits(row);
+            if (Amounts.toDecimal(entry.units).compareTo(row.getBalance()) != 0) {
+                System.err.println("⚠️ Balance " + row.getWalletAddress() + "/" + row.getTokenSymbol()
+                        + " truncated to " + Amounts.SCALE + " decimals: " + row.getBalance().toPlainString()
+                        + " -> " + Amounts.toDecimal(entry.units).toPlainString());
+            }
+            entry.lastUpdatedMillis = Timestamp.valueOf(row.getLastUpdated()).getTime();
+            loaded++;
+        }
+        System.out.println("📒 Balance ledger warmed with " + loaded + " balances across " + shardCount + " shards");
+    }
+    
+    // A persisted balance in ledger units, rounded down. A row beyond the long range
+    // cannot be held without losing supply, so startup stops and names it rather
+    // than serving a ledger that disagrees with the database
+    static long storedUnits(WalletBalance row) {
+        try {
+            return Amounts.toUnitsRoundingDown(row.getBalance());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Balance " + row.getBalance().toPlainString() + " of "
+                    + row.getWalletAddress() + "/" + row.getTokenSymbol() + " exceeds the ledger maximum of "
+                    + Amounts.toDecimal(Long.MAX_VALUE).toPlainString());
+        }
+    }
+    
+    public BigDecimal getBalance(String walletAddress, String tokenSymbol) {
+        return Amounts.toDecimal(getBalanceUnits(walletAddress, tokenSymbol));
+    }
+    
+    public long getBalanceUnits(String walletAddress, String tokenSymbol) {
+        LedgerEntry entry = shardFor(walletAddress).find(walletAddress, tokenSymbol);
+        return entry == null ? 0 : entry.units;
+    }
+    
+    public List<TokenBalance> getBalances(String walletAddress) {
+        Map<String, LedgerEntry> tokens = shardFor(walletAddress).accounts.get(walletAddress);
+        if (tokens == null) {
+            return List.of();
+        }
+        List<TokenBalance> balances = new ArrayList<>(tokens.size());
+        tokens.forEach((tokenSymbol, entry) ->
+                balances.add(new TokenBalance(tokenSymbol, entry.units, entry.lastUpdatedMillis)));
+        return balances;
+    }
+    
+    // Sums a token across all shards while holding every stripe, so the result
+    // never observes half of a transfer
+    public BigDecimal getTotalSupply(String tokenSymbol) {
+        lockAll();
+        try {
+            BigDecimal overflow = BigDecimal.ZERO;
+            long total = 0;
+            for (LedgerShard shard : shards) {
+                for (Map<String, LedgerEntry> tokens : shard.accounts.values()) {
+                    LedgerEntry entry = tokens.get(tokenSymbol);
+                    if (entry == null) {
+                        continue;
+                    }
+                    if (total > Long.MAX_VALUE - entry.units) {
+                        overflow = overflow.add(Amounts.toDecimal(total));
+                        total = 0;
+                    }
+                    total += entry.units;
+                }
+            }
+            return overflow.add(Amounts.toDecimal(total));
+        } finally {
+            unlockAll();
+        }
+    }
+    
+    // Debits the sender and credits the receiver as one atomic step. Returns
+    // false without touching either balance when the sender cannot cover the amount.
+    public boolean transfer(String fromAddress, String toAddress, String tokenSymbol, long amountUnits) {
+        return transfer(fromAddress, toAddress, tokenSymbol, amountUnits, () -> { });
+    }
+    
+    // beforeApply runs under both stripes once the sender is known to cover the
+    // amount. If it throws, neither balance moves and the exception propagates.
+    public boolean transfer(String fromAddress, String toAddress, String tokenSymbol, long amountUnits,
+                            Runnable beforeApply) {
+        return transfer(fromAddress, toAddress, tokenSymbol, amountUnits, 0, null, beforeApply);
+    }
+    
+    // As above, and also moves feeUnits from the sender to feeAddress in the same
+    // step. The sender must cover amount plus fee, or nothing moves.
+    public boolean transfer(String fromAddress, String toAddress, String tokenSymbol, long amountUnits,
+                            long feeUnits, String feeAddress, Runnable beforeApply) {
+        LedgerShard fromShard = shardFor(fromAddress);
+        LedgerShard toShard = shardFor(toAddress);
+        LedgerShard feeShard = feeUnits > 0 ? shardFor(feeAddress) : fromShard;
+        LedgerShard[] locked = lockInOrder(fromShard, toShard, feeShard);
+        try {
+            long debited = Math.addExact(amountUnits, feeUnits);
+            LedgerEntry sender = fromShard.find(fromAddress, tokenSymbol);
+            if (sender == null || sender.units < debited) {
+                return false;
+            }
+            LedgerEntry receiver = toShard.find(toAddress, tokenSymbol);
+            long credited = Math.addExact(receiver == null ? 0 : receiver.units, amountUnits);
+            if (feeUnits > 0) {
+                // A sink that is also the receiver collects on top of the credit
+                LedgerEntry sink = feeShard.find(feeAddress, tokenSymbol);
+                Math.addExact(feeAddress.equals(toAddress) ? credited : sink == null ? 0 : sink.units, feeUnits);
+            }
+            beforeApply.run();
+            if (receiver == null) {
+                receiver = toShard.entryFor(toAddress, tokenSymbol);
+            }
+            apply(fromShard, sender, sender.units - debited);
+            apply(toShard, receiver, credited);
+            if (feeUnits > 0) {
+                LedgerEntry sink = feeShard.entryFor(feeAddress, tokenSymbol);
+                apply(feeShard, sink, sink.units + feeUnits);
+            }
+            return true;
+        } finally {
+            for (int i = locked.length - 1; i >= 0; i--) {
+                locked[i].lock.unlock();
+            }
+        }
+    }
+    
+    // Locks each distinct shard once, lowest index first, and returns them in that order
+    private static LedgerShard[] lockInOrder(LedgerShard a, LedgerShard b, LedgerShard c) {
+        LedgerShard[] order = {a, b, c};
+        int count = 0;
+        for (LedgerShard shard : order) {
+            int at = count;
+            while (at > 0 && order[at - 1].index > shard.index) {
+                at--;
+            }
+            if (at > 0 && order[at - 1] == shard) {
+                continue;
+            }
+            System.arraycopy(order, at, order, at + 1, count - at);
+            order[at] = shard;
+            count++;
+        }
+        LedgerShard[] locked = Arrays.copyOf(order, count);
+        for (LedgerShard shard : locked) {
+            shard.lock.lock();
+        }
+        return locked;
+    }
+    
+    // Visits every balance and then runs whileLocked, all under every stripe, so
+    // both see one consistent cut with no transfer half-applied
+    public void snapshot(BalanceVisitor visitor, Runnable whileLocked) {
+        lockAll();
+        try {
+            for (LedgerShard shard : shards) {
+                shard.accounts.forEach((walletAddress, tokens) -> tokens.forEach((tokenSymbol, entry) ->
+                        visitor.visit(walletAddress, tokenSymbol, entry.units)));
+            }
+            whileLocked.run();
+        } finally {
+            unlockAll();
+        }
+    }
+    
+    // Runs action under every stripe, so no transfer is half-applied while it runs
+    public void whileLocked(Runnable action) {
+        lockAll();
+        try {
+            action.run();
+        } finally {
+            unlockAll();
+        }
+    }
+    
+    // Listeners run under the shard lock, in mutation order, and must not block
+    public void addListener(BalanceListener listener) {
+        listeners.add(listener);
+    }
+    
+    private void apply(LedgerShard shard, LedgerEntry entry, long newUnits) {
+        long oldUnits = entry.units;
+        shard.apply(entry, newUnits);
+        for (BalanceListener listener : listeners) {
+            listener.onBalanceChanged(entry.walletAddress, entry.tokenSymbol, oldUnits, newUnits);
+        }
+    }
+    
+    private void lockAll() {
+        for (LedgerShard shard : shards) {
+            shard.lock.lock();
+        }
+    }
+    
+    private void unlockAll() {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            shards[i].lock.unlock();
+        }
+    }
+    
+    private LedgerShard shardFor(String walletAddress) {
+        return shards[Math.floorMod(walletAddress.hashCode(), shards.length)];
+    }
+    
+    private static final class LedgerShard {
+        final int index;
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<String, Map<String, LedgerEntry>> accounts = new ConcurrentHashMap<>();
+        
+        LedgerShard(int index) {
+            this.index = index;
+        }
+        
+        LedgerEntry find(String walletAddress, String tokenSymbol) {
+            Map<String, LedgerEntry> tokens = accounts.get(walletAddress);
+            return tokens == null ? null : tokens.get(tokenSymbol);
+        }
+        
+        LedgerEntry entryFor(String walletAddress, String tokenSymbol) {
+            return accounts.computeIfAbsent(walletAddress, address -> new ConcurrentHashMap<>(4))
+                    .computeIfAbsent(tokenSymbol, symbol -> new LedgerEntry(walletAddress, symbol));
+        }
+        
+        // Caller must hold the shard lock
+        void apply(LedgerEntry entry, long newUnits) {
+            entry.units = newUnits;
+            entry.lastUpdatedMillis = System.currentTimeMillis();
+        }
+    }
+    
+    private static final class LedgerEntry {
+        final String walletAddress;
+        final String tokenSymbol;
+        volatile long units;
+        volatile long lastUpdatedMillis = System.currentTimeMillis();
+        
+        LedgerEntry(String walletAddress, String tokenSymbol) {
+            this.walletAddress = walletAddress;
+            this.tokenSymbol = tokenSymbol;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.defiverse.wallet;
+
+interface BalanceListener {
+    void onBalanceChanged(String walletAddress, String tokenSymbol, long oldUnits, long newUnits);
+}
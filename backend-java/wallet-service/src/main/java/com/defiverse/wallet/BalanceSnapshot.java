@@ -0,0 +1,264 @@
+package com.defiverse.wallet;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.CRC32;
+
+// Balance Snapshots
+// Columnar, delta-encoded balances at one instant. Rows are (wallet, token, value)
+// sorted by wallet then token and cut into blocks of BLOCK_ROWS. A block stores its
+// columns one after another: addresses front-coded against the previous row, token
+// ids as varints and values as zigzag varints. A sparse index of each block's first
+// address lets a lookup binary-search and decode one block. Keyframes hold full
+// balances; the snapshots between them hold only the changes since the previous one.
+public final class BalanceSnapshot {
+    
+    static final int BLOCK_ROWS = 128;
+    private static final int FILE_MAGIC = 0x44465342; // "DFSB"
+    
+    private final long takenAtMillis;
+    private final boolean keyframe;
+    private final String[] tokens;
+    private final long[] priceUnits; // price of each token when taken, 0 if unpriced
+    private final int rowCount;
+    private final String[] blockFirstAddress;
+    private final int[] blockOffset;
+    private final byte[] data;
+    
+    private BalanceSnapshot(long takenAtMillis, boolean keyframe, String[] tokens, long[] priceUnits,
+                            int rowCount, String[] blockFirstAddress, int[] blockOffset, byte[] data) {
+        this.takenAtMillis = takenAtMillis;
+        this.keyframe = keyframe;
+        this.tokens = tokens;
+        this.priceUnits = priceUnits;
+        this.rowCount = rowCount;
+        this.blockFirstAddress = blockFirstAddress;
+        this.blockOffset = blockOffset;
+        this.data = data;
+    }
+    
+    // Zero values are left out, so a delta only carries wallets that changed
+    public static BalanceSnapshot encode(long takenAtMillis, boolean keyframe,
+                                         SortedMap<String, SortedMap<String, Long>> rows, PriceSnapshot prices) {
+        Map<String, Integer> tokenIds = new LinkedHashMap<>();
+        for (int i = 0; i < prices.size(); i++) {
+            tokenIds.putIfAbsent(prices.symbolAt(i), tokenIds.size());
+        }
+        rows.values().forEach(tokens -> tokens.keySet().forEach(token -> tokenIds.putIfAbsent(token, tokenIds.size())));
+        String[] tokens = tokenIds.keySet().toArray(new String[0]);
+        long[] priceUnits = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            int index = prices.indexOf(tokens[i]);
+            priceUnits[i] = index < 0 ? 0 : prices.priceUnitsAt(index);
+        }
+        
+        List<String> addresses = new ArrayList<>();
+        List<Integer> tokenColumn = new ArrayList<>();
+        List<Long> valueColumn = new ArrayList<>();
+        rows.forEach((walletAddress, balances) -> balances.forEach((token, units) -> {
+            if (units != 0) {
+                addresses.add(walletAddress);
+                tokenColumn.add(tokenIds.get(token));
+                valueColumn.add(units);
+            }
+        }));
+        
+        int blocks = (addresses.size() + BLOCK_ROWS - 1) / BLOCK_ROWS;
+        String[] blockFirstAddress = new String[blocks];
+        int[] blockOffset = new int[blocks];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int block = 0; block < blocks; block++) {
+            int from = block * BLOCK_ROWS;
+            int to = Math.min(from + BLOCK_ROWS, addresses.size());
+            blockFirstAddress[block] = addresses.get(from);
+            blockOffset[block] = out.size();
+            String previous = "";
+            for (int row = from; row < to; row++) {
+                String address = addresses.get(row);
+                int shared = sharedPrefix(previous, address);
+                byte[] suffix = address.substring(shared).getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, shared);
+                writeVarint(out, suffix.length);
+                out.write(suffix, 0, suffix.length);
+                previous = address;
+            }
+            for (int row = from; row < to; row++) {
+                writeVarint(out, tokenColumn.get(row));
+            }
+            for (int row = from; row < to; row++) {
+                long value = valueColumn.get(row);
+                writeVarint(out, (value << 1) ^ (value >> 63));
+            }
+        }
+        return new BalanceSnapshot(takenAtMillis, keyframe, tokens, priceUnits, addresses.size(),
+                blockFirstAddress, blockOffset, out.toByteArray());
+    }
+    
+    public long getTakenAtMillis() { return takenAtMillis; }
+    public boolean isKeyframe() { return keyframe; }
+    public int getRowCount() { return rowCount; }
+    public int getEncodedSize() { return data.length; }
+    
+    public long priceUnitsOf(String tokenSymbol) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(tokenSymbol)) {
+                return priceUnits[i];
+            }
+        }
+        return 0;
+    }
+    
+    // Adds this snapshot's values for one wallet into unitsByToken
+    public void addTo(String walletAddress, Map<String, Long> unitsByToken) {
+        // The wallet's rows can start in the block before the first one it heads
+        int low = 0;
+        int high = blockFirstAddress.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (blockFirstAddress[mid].compareTo(walletAddress) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int block = Math.max(0, low - 1);
+             block < blockFirstAddress.length && blockFirstAddress[block].compareTo(walletAddress) <= 0; block++) {
+            decodeBlock(block, (address, token, units) -> {
+                if (address.equals(walletAddress)) {
+                    unitsByToken.merge(token, units, Long::sum);
+                }
+            });
+        }
+    }
+    
+    public void forEach(BalanceVisitor visitor) {
+        for (int block = 0; block < blockFirstAddress.length; block++) {
+            decodeBlock(block, visitor);
+        }
+    }
+    
+    private void decodeBlock(int block, BalanceVisitor visitor) {
+        int rows = Math.min(BLOCK_ROWS, rowCount - block * BLOCK_ROWS);
+        int[] position = {blockOffset[block]};
+        String[] addresses = new String[rows];
+        String previous = "";
+        for (int row = 0; row < rows; row++) {
+            int shared = (int) readVarint(data, position);
+            int length = (int) readVarint(data, position);
+            previous = previous.substring(0, shared) + new String(data, position[0], length, StandardCharsets.UTF_8);
+            position[0] += length;
+            addresses[row] = previous;
+        }
+        int[] tokenIds = new int[rows];
+        for (int row = 0; row < rows; row++) {
+            tokenIds[row] = (int) readVarint(data, position);
+        }
+        for (int row = 0; row < rows; row++) {
+            long zigzag = readVarint(data, position);
+            visitor.visit(addresses[row], tokens[tokenIds[row]], (zigzag >>> 1) ^ -(zigzag & 1));
+        }
+    }
+    
+    // magic, takenAt, keyframe, tokens with prices, row count, block index, data, crc32
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.length + 64 + 32 * blockOffset.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FILE_MAGIC);
+            out.writeLong(takenAtMillis);
+            out.writeBoolean(keyframe);
+            out.writeInt(tokens.length);
+            for (int i = 0; i < tokens.length; i++) {
+                out.writeUTF(tokens[i]);
+                out.writeLong(priceUnits[i]);
+            }
+            out.writeInt(rowCount);
+            out.writeInt(blockOffset.length);
+            for (int i = 0; i < blockOffset.length; i++) {
+                out.writeUTF(blockFirstAddress[i]);
+                out.writeInt(blockOffset[i]);
+            }
+            out.writeInt(data.length);
+            out.write(data);
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+    
+    public static BalanceSnapshot fromBytes(byte[] bytes) throws IOException {
+        if (bytes.length < Integer.BYTES * 2) {
+            throw new IOException("Snapshot is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a balance snapshot");
+            }
+            long takenAtMillis = in.readLong();
+            boolean keyframe = in.readBoolean();
+            String[] tokens = new String[in.readInt()];
+            long[] priceUnits = new long[tokens.length];
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = in.readUTF();
+                priceUnits[i] = in.readLong();
+            }
+            int rowCount = in.readInt();
+            String[] blockFirstAddress = new String[in.readInt()];
+            int[] blockOffset = new int[blockFirstAddress.length];
+            for (int i = 0; i < blockOffset.length; i++) {
+                blockFirstAddress[i] = in.readUTF();
+                blockOffset[i] = in.readInt();
+            }
+            byte[] data = new byte[in.readInt()];
+            in.readFully(data);
+            return new BalanceSnapshot(takenAtMillis, keyframe, tokens, priceUnits, rowCount,
+                    blockFirstAddress, blockOffset, data);
+        }
+    }
+    
+    private static int sharedPrefix(String previous, String address) {
+        int limit = Math.min(previous.length(), address.length());
+        int shared = 0;
+        while (shared < limit && previous.charAt(shared) == address.charAt(shared)) {
+            shared++;
+        }
+        // Never split a surrogate pair between the prefix and the encoded suffix
+        if (shared > 0 && Character.isHighSurrogate(address.charAt(shared - 1))) {
+            shared--;
+        }
+        return shared;
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+    
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.defiverse.wallet;
+
+interface BalanceVisitor {
+    void visit(String walletAddress, String tokenSymbol, long units);
+}
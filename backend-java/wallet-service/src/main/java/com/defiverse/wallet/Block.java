@@ -0,0 +1,48 @@
+package com.defiverse.wallet;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+// Block Entity
+// A sealed batch of confirmed transactions. Blocks chain through previousHash and
+// commit to their transactions through an RFC 6962 style Merkle root.
+@Entity
+@Table(name = "blocks")
+public class Block {
+    @Id
+    private Long number;
+    
+    @NotNull
+    private String hash;
+    
+    @NotNull
+    private String previousHash;
+    
+    @NotNull
+    private String merkleRoot;
+    
+    private int transactionCount;
+    
+    private LocalDateTime sealedAt;
+    
+    // Constructors, getters
+    public Block() {}
+    
+    public Block(Long number, String hash, String previousHash, String merkleRoot,
+                 int transactionCount, LocalDateTime sealedAt) {
+        this.number = number;
+        this.hash = hash;
+        this.previousHash = previousHash;
+        this.merkleRoot = merkleRoot;
+        this.transactionCount = transactionCount;
+        this.sealedAt = sealedAt;
+    }
+    
+    public Long getNumber() { return number; }
+    public String getHash() { return hash; }
+    public String getPreviousHash() { return previousHash; }
+    public String getMerkleRoot() { return merkleRoot; }
+    public int getTransactionCount() { return transactionCount; }
+    public LocalDateTime getSealedAt() { return sealedAt; }
+}
@@ -0,0 +1,164 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Block Builder
+// Seals projected transactions into blocks once max-transactions are pending or
+// interval-ms has passed since the oldest one arrived. It runs on its own thread
+// behind the journal projector, so transfer responses never wait for a block.
+// Sealing inserts the block and stamps its transactions in one commit; rows left
+// unsealed by a crash are picked up again on startup.
+@Service
+public class BlockBuilder {
+    
+    @Autowired
+    private BlockRepository blockRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.blocks.max-transactions:1000}")
+    private int maxTransactions;
+    
+    @Value("${defiverse.blocks.interval-ms:1000}")
+    private long intervalMs;
+    
+    static final String GENESIS_HASH = "0x" + "0".repeat(64);
+    
+    private static final String INSERT_BLOCK_SQL =
+            "INSERT INTO blocks (number, hash, previous_hash, merkle_root, transaction_count, sealed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String STAMP_TRANSACTION_SQL =
+            "UPDATE transactions SET block_hash = ?, block_number = ? WHERE id = ?";
+    
+    private final LinkedBlockingQueue<Transaction> pending = new LinkedBlockingQueue<>();
+    private TransactionTemplate transactionTemplate;
+    private LatencyHistogram sealLatency;
+    private volatile Block head;
+    private volatile boolean running;
+    private Thread builder;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        sealLatency = metricsService.histogram("block.seal");
+        head = ReadWriteRoutingDataSource.onPrimary(blockRepository::findTopByOrderByNumberDesc).orElse(null);
+        pending.addAll(ReadWriteRoutingDataSource.onPrimary(transactionRepository::findByBlockNumberIsNullOrderByCreatedAtAscIdAsc));
+        
+        running = true;
+        builder = new Thread(this::buildLoop, "block-builder");
+        builder.setDaemon(true);
+        builder.start();
+        System.out.println("⛓️ Block builder resumed at block " + (head == null ? 0 : head.getNumber())
+                + " with " + pending.size() + " unsealed transactions");
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        builder.interrupt();
+        builder.join(5000);
+    }
+    
+    // Called with transactions whose rows have been committed
+    public void submit(List<Transaction> transactions) {
+        pending.addAll(transactions);
+    }
+    
+    public Optional<Block> getHead() {
+        return Optional.ofNullable(head);
+    }
+    
+    private void buildLoop() {
+        List<Transaction> batch = new ArrayList<>(maxTransactions);
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    collect(batch);
+                }
+                if (!batch.isEmpty()) {
+                    seal(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Keep the batch and retry it, so block contents never change between attempts
+                System.err.println("❌ Block sealing failed, retrying: " + e.getMessage());
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(intervalMs));
+            }
+        }
+    }
+    
+    private void collect(List<Transaction> batch) throws InterruptedException {
+        Transaction first = pending.poll(intervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        while (batch.size() < maxTransactions) {
+            pending.drainTo(batch, maxTransactions - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxTransactions || remaining <= 0) {
+                break;
+            }
+            Transaction next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+    
+    private void seal(List<Transaction> batch) {
+        long startedAt = System.nanoTime();
+        // Leaves are ordered by id so proofs can be rebuilt from the stored rows
+        batch.sort(Comparator.comparing(Transaction::getId));
+        String merkleRoot = MerkleTree.toHex(MerkleTree.root(batch));
+        
+        long number = head == null ? 1 : head.getNumber() + 1;
+        String previousHash = head == null ? GENESIS_HASH : head.getHash();
+        LocalDateTime sealedAt = LocalDateTime.now();
+        String hash = MerkleTree.toHex(MerkleTree.blockHash(number, previousHash, merkleRoot, batch.size(),
+                Timestamp.valueOf(sealedAt).getTime()));
+        Block block = new Block(number, hash, previousHash, merkleRoot, batch.size(), sealedAt);
+        
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(INSERT_BLOCK_SQL, number, hash, previousHash, merkleRoot, batch.size(),
+                    Timestamp.valueOf(sealedAt));
+            jdbcTemplate.batchUpdate(STAMP_TRANSACTION_SQL, batch, batch.size(), (ps, transaction) -> {
+                ps.setString(1, hash);
+                ps.setLong(2, number);
+                ps.setString(3, transaction.getId());
+            });
+        });
+        head = block;
+        sealLatency.record(System.nanoTime() - startedAt);
+        metricsService.incrementCounter("blocks.sealed");
+        metricsService.setGauge("blocks.pending", pending.size());
+    }
+}
@@ -0,0 +1,10 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.*;
+
+@Repository
+public interface BlockRepository extends JpaRepository<Block, Long> {
+    Optional<Block> findTopByOrderByNumberDesc();
+}
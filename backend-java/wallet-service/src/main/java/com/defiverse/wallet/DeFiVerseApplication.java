@@ -0,0 +1,15 @@
+// Enterprise Java Spring Boot microservice for DeFiVerse
+// Handles wallet operations, user management, and API endpoints
+
+package com.defiverse.wallet;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class DeFiVerseApplication {
+    public static void main(String[] args) {
+        System.out.println("🚀 Starting DeFiVerse Java Backend...");
+        SpringApplication.run(DeFiVerseApplication.class, args);
+    }
+}
@@ -0,0 +1,160 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Idempotency Keys
+// A transfer sent with an Idempotency-Key runs at most once per sender and key. The
+// key fixes the transaction id, so a retry is answered from this bounded, TTL-evicting
+// map, or from the transactions table once the entry is gone. An entry whose journal
+// record the projector has not yet written to that table is never evicted, so a retry
+// always finds one or the other. Concurrent duplicates share the first submission's
+// in-flight result. Transfers that wrote no journal record moved no funds and are
+// forgotten, so the same key can be retried.
+@Service
+public class IdempotencyCache {
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Autowired
+    private JournalProjector journalProjector;
+    
+    @Value("${defiverse.idempotency.max-size:100000}")
+    private int maxSize;
+    
+    @Value("${defiverse.idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+    
+    static final int MAX_KEY_LENGTH = 255;
+    
+    private final Map<String, Submission> entries = new ConcurrentHashMap<>();
+    private final Queue<Submission> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedSubmissions = new AtomicInteger();
+    
+    // Derived from sender and key only, so every retry maps to the same row
+    public static String transactionId(String fromAddress, String idempotencyKey) {
+        return UUID.nameUUIDFromBytes((fromAddress + "\n" + idempotencyKey).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+    
+    // Throws RejectedExecutionException when the transfer could not be queued; the key stays unused
+    public CompletableFuture<TransactionResult> submit(TransferRequest request, String idempotencyKey,
+                                                       Function<String, CompletableFuture<TransactionResult>> transfer) {
+        evictExpired();
+        String transactionId = transactionId(request.getFromAddress(), idempotencyKey);
+        Submission submission = new Submission(fingerprint(request.getToAddress(), request.getAmount(),
+                request.getTokenSymbol()), System.nanoTime(), transactionId);
+        Submission existing = entries.putIfAbsent(transactionId, submission);
+        if (existing != null) {
+            metricsService.incrementCounter("idempotency.hits");
+            return existing.resultFor(submission.fingerprint);
+        }
+        insertionOrder.add(submission);
+        queuedSubmissions.incrementAndGet();
+        
+        // Evicted or recorded before a restart: the stored row is the original result
+        Optional<Transaction> recorded = ReadWriteRoutingDataSource.onPrimary(() -> transactionRepository.findById(transactionId));
+        if (recorded.isPresent()) {
+            metricsService.incrementCounter("idempotency.hits");
+            Transaction original = recorded.get();
+            Submission stored = new Submission(fingerprint(original.getToAddress(), original.getAmount(),
+                    original.getTokenSymbol()), submission.submittedAt, transactionId);
+            stored.result.complete(new TransactionResult(transactionId, original.getStatus(), "Transfer successful"));
+            entries.replace(transactionId, submission, stored);
+            submission.result.complete(stored.result.join());
+            return stored.resultFor(submission.fingerprint);
+        }
+        
+        metricsService.incrementCounter("idempotency.misses");
+        CompletableFuture<TransactionResult> pending;
+        try {
+            pending = transfer.apply(transactionId);
+        } catch (RuntimeException e) {
+            entries.remove(transactionId, submission);
+            throw e;
+        }
+        pending.whenComplete((result, error) -> {
+            if (error != null || result.getStatus() != TransactionStatus.CONFIRMED && result.journalSeq() == 0) {
+                entries.remove(transactionId, submission);
+            }
+            if (error != null) {
+                submission.result.completeExceptionally(error);
+            } else {
+                submission.result.complete(result);
+            }
+        });
+        return submission.result;
+    }
+    
+    // FIFO eviction by age, then by size. A head that is in flight, or whose journal
+    // record is not yet projected, stops it: until its transactions row exists the
+    // entry is the only thing keeping a retry from running the transfer again. A
+    // stalled projector therefore lets the map grow past maxSize.
+    private void evictExpired() {
+        long now = System.nanoTime();
+        Submission oldest;
+        while ((oldest = insertionOrder.peek()) != null) {
+            if (!oldest.result.isDone() || !isProjected(oldest)) {
+                return;
+            }
+            boolean expired = now - oldest.submittedAt >= TimeUnit.MILLISECONDS.toNanos(ttlMs);
+            boolean overflow = entries.size() > maxSize || queuedSubmissions.get() > 2 * maxSize;
+            if (!expired && !overflow) {
+                return;
+            }
+            if (insertionOrder.remove(oldest)) {
+                queuedSubmissions.decrementAndGet();
+                if (entries.remove(oldest.transactionId, oldest)) {
+                    metricsService.incrementCounter("idempotency.evictions");
+                }
+            }
+        }
+    }
+    
+    private boolean isProjected(Submission submission) {
+        if (submission.result.isCompletedExceptionally()) {
+            return true;
+        }
+        TransactionResult result = submission.result.getNow(null);
+        return result == null || result.journalSeq() <= journalProjector.getProjectedSeq();
+    }
+    
+    private static String fingerprint(String toAddress, BigDecimal amount, String tokenSymbol) {
+        String normalized = amount == null ? null : amount.stripTrailingZeros().toPlainString();
+        return toAddress + "\n" + normalized + "\n" + tokenSymbol;
+    }
+    
+    private static final class Submission {
+        final String fingerprint;
+        final long submittedAt;
+        final String transactionId;
+        final CompletableFuture<TransactionResult> result = new CompletableFuture<>();
+        
+        Submission(String fingerprint, long submittedAt, String transactionId) {
+            this.fingerprint = fingerprint;
+            this.submittedAt = submittedAt;
+            this.transactionId = transactionId;
+        }
+        
+        CompletableFuture<TransactionResult> resultFor(String requestFingerprint) {
+            if (!fingerprint.equals(requestFingerprint)) {
+                return CompletableFuture.completedFuture(new TransactionResult(null, TransactionStatus.FAILED,
+                        "Idempotency key was already used for a different transfer"));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.defiverse.wallet;
+
+import java.util.*;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Publishes queue depth and queue wait time for the transfer executor
+class InstrumentedExecutor extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final BlockingQueue<Runnable> queue;
+    private final MetricsService metricsService;
+    private final LatencyHistogram waitTimes;
+    
+    InstrumentedExecutor(ExecutorService delegate, BlockingQueue<Runnable> queue, MetricsService metricsService) {
+        this.delegate = delegate;
+        this.queue = queue;
+        this.metricsService = metricsService;
+        this.waitTimes = metricsService.histogram("transfer.executor.wait");
+    }
+    
+    @Override
+    public void execute(Runnable command) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            delegate.execute(() -> {
+                waitTimes.record(System.nanoTime() - enqueuedAt);
+                publishQueueDepth();
+                command.run();
+            });
+        } catch (RejectedExecutionException e) {
+            metricsService.incrementCounter("transfer.executor.rejected");
+            throw e;
+        }
+        publishQueueDepth();
+    }
+    
+    private void publishQueueDepth() {
+        if (queue != null) {
+            metricsService.setGauge("transfer.executor.queue_depth", queue.size());
+        }
+    }
+    
+    @Override
+    public void shutdown() { delegate.shutdown(); }
+    
+    @Override
+    public List<Runnable> shutdownNow() { return delegate.shutdownNow(); }
+    
+    @Override
+    public boolean isShutdown() { return delegate.isShutdown(); }
+    
+    @Override
+    public boolean isTerminated() { return delegate.isTerminated(); }
+    
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
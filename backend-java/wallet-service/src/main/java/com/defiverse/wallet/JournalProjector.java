@@ -0,0 +1,208 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Journal Projector
+// Loads durable journal records into transactions and wallet_balances. Each batch
+// commits in one database transaction and balances move by the batch's summed
+// deltas; the checkpoint only advances after the commit. A record is projected
+// only if its id is not already in transactions: records found on disk at startup
+// may have been inserted before a crash, and a record repeating an earlier id
+// would otherwise fail the batch insert and stall projection for good. The startup
+// catch-up runs before the ledger warms from wallet_balances.
+@Service
+public class JournalProjector {
+    
+    @Autowired
+    private TransactionJournal journal;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Autowired
+    private BlockBuilder blockBuilder;
+    
+    @Value("${defiverse.journal.project-interval-ms:20}")
+    private long projectIntervalMs;
+    
+    @Value("${defiverse.journal.project-batch-size:1000}")
+    private int batchSize;
+    
+    private static final String INSERT_TRANSACTION_SQL =
+            "INSERT INTO transactions (id, from_address, to_address, amount, token_symbol, gas_fee, status, " +
+            "created_at, confirmed_at, block_hash, block_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ADD_BALANCE_SQL =
+            "UPDATE wallet_balances SET balance = balance + ?, last_updated = ?, version = COALESCE(version, 0) + 1 " +
+            "WHERE wallet_address = ? AND token_symbol = ?";
+    private static final String INSERT_BALANCE_SQL =
+            "INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) " +
+            "VALUES (?, ?, ?, ?, 0)";
+    
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService scheduler;
+    private volatile long projectedSeq;
+    
+    @PostConstruct
+    public void recover() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        projectedSeq = journal.getCheckpointSeq();
+        long pending = journal.getDurableSeq() - projectedSeq;
+        drain();
+        System.out.println("🔁 Replayed " + pending + " journal records into the database");
+        
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-projector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                drain();
+            } catch (Exception e) {
+                System.err.println("❌ Journal projection failed, retrying: " + e.getMessage());
+            }
+        }, projectIntervalMs, projectIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drain();
+    }
+    
+    public long getProjectedSeq() { return projectedSeq; }
+    
+    private synchronized void drain() {
+        while (projectBatch() == batchSize) {
+            // Keep going while whole batches are waiting
+        }
+        metricsService.setGauge("journal.projector_lag", journal.getDurableSeq() - projectedSeq);
+    }
+    
+    private int projectBatch() {
+        long from = projectedSeq + 1;
+        long to = Math.min(journal.getDurableSeq(), projectedSeq + batchSize);
+        if (to < from) {
+            return 0;
+        }
+        List<Transaction> batch = new ArrayList<>((int) (to - from + 1));
+        for (long seq = from; seq <= to; seq++) {
+            batch.add(journal.read(seq));
+        }
+        
+        List<Transaction> fresh = transactionTemplate.execute(status -> {
+            List<Transaction> rows = withoutExisting(batch, from <= journal.getRecoveredSeq());
+            insertTransactions(rows);
+            applyBalanceDeltas(rows);
+            return rows;
+        });
+        projectedSeq = to;
+        blockBuilder.submit(fresh);
+        metricsService.incrementCounter("journal.projected", batch.size());
+        
+        try {
+            journal.checkpoint(to);
+        } catch (IOException e) {
+            // The next checkpoint covers this batch; replay skips rows already inserted
+            System.err.println("⚠️ Journal checkpoint failed: " + e.getMessage());
+        }
+        return batch.size();
+    }
+    
+    // Outside startup replay an id that is already stored, or repeated within the
+    // batch, means the ledger applied one transfer twice; it is skipped and counted
+    private List<Transaction> withoutExisting(List<Transaction> batch, boolean replaying) {
+        String placeholders = String.join(",", Collections.nCopies(batch.size(), "?"));
+        Set<String> seen = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT id FROM transactions WHERE id IN (" + placeholders + ")", String.class,
+                batch.stream().map(Transaction::getId).toArray()));
+        if (seen.isEmpty() && batch.stream().map(Transaction::getId).distinct().count() == batch.size()) {
+            return batch;
+        }
+        List<Transaction> fresh = new ArrayList<>(batch.size());
+        for (Transaction transaction : batch) {
+            if (seen.add(transaction.getId())) {
+                fresh.add(transaction);
+            } else if (!replaying) {
+                metricsService.incrementCounter("journal.duplicate_ids");
+                System.err.println("⚠️ Journal record repeats transaction " + transaction.getId() + ", skipped");
+            }
+        }
+        return fresh;
+    }
+    
+    private void insertTransactions(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, transactions, transactions.size(), (ps, transaction) -> {
+            ps.setString(1, transaction.getId());
+            ps.setString(2, transaction.getFromAddress());
+            ps.setString(3, transaction.getToAddress());
+            ps.setBigDecimal(4, transaction.getAmount());
+            ps.setString(5, transaction.getTokenSymbol());
+            ps.setBigDecimal(6, transaction.getGasFee());
+            ps.setString(7, transaction.getStatus().name());
+            ps.setTimestamp(8, Timestamp.valueOf(transaction.getCreatedAt()));
+            ps.setTimestamp(9, Timestamp.valueOf(transaction.getConfirmedAt()));
+            ps.setString(10, transaction.getBlockHash());
+            ps.setObject(11, transaction.getBlockNumber());
+        });
+    }
+    
+    // Sums the batch per (wallet, token) so each balance row is written once
+    private void applyBalanceDeltas(List<Transaction> transactions) {
+        Map<String, Map<String, BigDecimal>> deltas = new HashMap<>();
+        for (Transaction transaction : transactions) {
+            deltas.computeIfAbsent(transaction.getFromAddress(), address -> new HashMap<>())
+                    .merge(transaction.getTokenSymbol(), transaction.getAmount().negate(), BigDecimal::add);
+            deltas.computeIfAbsent(transaction.getToAddress(), address -> new HashMap<>())
+                    .merge(transaction.getTokenSymbol(), transaction.getAmount(), BigDecimal::add);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> updates = new ArrayList<>();
+        deltas.forEach((address, tokens) -> tokens.forEach((tokenSymbol, delta) ->
+                updates.add(new Object[] {delta, now, address, tokenSymbol})));
+        if (updates.isEmpty()) {
+            return;
+        }
+        
+        int[] counts = jdbcTemplate.batchUpdate(ADD_BALANCE_SQL, updates);
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                Object[] update = updates.get(i);
+                inserts.add(new Object[] {update[2], update[3], update[0], now});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BALANCE_SQL, inserts);
+        }
+    }
+}
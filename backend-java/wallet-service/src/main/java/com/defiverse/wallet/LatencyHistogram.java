@@ -0,0 +1,80 @@
+package com.defiverse.wallet;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear latency histogram in the style of HdrHistogram: 32 sub-buckets per
+// power of two gives ~3% relative error from 1ns up to the full long range.
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexFor(value));
+        count.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // retry until max is at least value
+        }
+    }
+    
+    public long getCount() { return count.sum(); }
+    public long getSum() { return sum.sum(); }
+    public long getMax() { return max.get(); }
+    
+    public long valueAtQuantile(double quantile) {
+        long[] value = new long[1];
+        valuesAtQuantiles(new double[] {quantile}, value);
+        return value[0];
+    }
+    
+    // One pass over the buckets for several ascending quantiles; reports each
+    // bucket's highest equivalent value
+    public void valuesAtQuantiles(double[] quantiles, long[] values) {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += buckets.get(i);
+        }
+        Arrays.fill(values, 0);
+        if (total == 0) {
+            return;
+        }
+        long seen = 0;
+        int next = 0;
+        for (int i = 0; i < BUCKET_COUNT && next < quantiles.length; i++) {
+            seen += buckets.get(i);
+            while (next < quantiles.length && seen >= Math.max(1, (long) Math.ceil(quantiles[next] * total))) {
+                values[next++] = Math.min(highestValueAt(i), max.get());
+            }
+        }
+    }
+    
+    static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+    
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,19 @@
+package com.defiverse.wallet;
+
+import java.time.LocalDateTime;
+
+public class LoginResult {
+    private String token;
+    private String walletAddress;
+    private LocalDateTime expiresAt;
+    
+    public LoginResult(String token, String walletAddress, LocalDateTime expiresAt) {
+        this.token = token;
+        this.walletAddress = walletAddress;
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getToken() { return token; }
+    public String getWalletAddress() { return walletAddress; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
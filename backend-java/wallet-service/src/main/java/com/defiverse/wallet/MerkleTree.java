@@ -0,0 +1,118 @@
+package com.defiverse.wallet;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Merkle Tree
+// RFC 6962 layout: leaves are SHA-256(0x00 || tx) and nodes SHA-256(0x01 || left || right),
+// splitting n leaves at the largest power of two below n. Large ranges are hashed
+// in parallel on the common fork-join pool.
+final class MerkleTree {
+    
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+    
+    private MerkleTree() {}
+    
+    static byte[] root(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return SHA256.get().digest();
+        }
+        return ForkJoinPool.commonPool().invoke(new SubtreeTask(transactions, 0, transactions.size()));
+    }
+    
+    // Sibling hashes from the leaf up to the root, each tagged with the side it sits on
+    static List<Map<String, String>> proof(List<Transaction> transactions, int index) {
+        int lo = 0;
+        int hi = transactions.size();
+        Deque<Map<String, String>> stack = new ArrayDeque<>();
+        while (hi - lo > 1) {
+            int mid = lo + split(hi - lo);
+            if (index < mid) {
+                stack.push(Map.of("side", "right", "hash", toHex(subtree(transactions, mid, hi))));
+                hi = mid;
+            } else {
+                stack.push(Map.of("side", "left", "hash", toHex(subtree(transactions, lo, mid))));
+                lo = mid;
+            }
+        }
+        return new ArrayList<>(stack);
+    }
+    
+    static byte[] leafHash(Transaction transaction) {
+        MessageDigest digest = SHA256.get();
+        digest.update((byte) 0x00);
+        digest.update((transaction.getId() + '|' + transaction.getFromAddress() + '|' + transaction.getToAddress()
+                + '|' + transaction.getTokenSymbol() + '|' + Amounts.toUnits(transaction.getAmount())
+                + '|' + Amounts.toUnits(transaction.getGasFee())).getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+    
+    static byte[] blockHash(long number, String previousHash, String merkleRoot, int transactionCount, long sealedAtMillis) {
+        MessageDigest digest = SHA256.get();
+        digest.update((number + "|" + previousHash + "|" + merkleRoot + "|" + transactionCount + "|" + sealedAtMillis)
+                .getBytes(StandardCharsets.UTF_8));
+        return digest.digest();
+    }
+    
+    static String toHex(byte[] hash) {
+        return "0x" + HexFormat.of().formatHex(hash);
+    }
+    
+    private static byte[] subtree(List<Transaction> transactions, int lo, int hi) {
+        if (hi - lo == 1) {
+            return leafHash(transactions.get(lo));
+        }
+        int mid = lo + split(hi - lo);
+        return node(subtree(transactions, lo, mid), subtree(transactions, mid, hi));
+    }
+    
+    private static byte[] node(byte[] left, byte[] right) {
+        MessageDigest digest = SHA256.get();
+        digest.update((byte) 0x01);
+        digest.update(left);
+        digest.update(right);
+        return digest.digest();
+    }
+    
+    // Largest power of two strictly below n, for n >= 2
+    private static int split(int n) {
+        return Integer.highestOneBit(n - 1);
+    }
+    
+    private static final class SubtreeTask extends RecursiveTask<byte[]> {
+        private static final long serialVersionUID = 1L;
+        // Tasks are never serialized; ForkJoinTask is Serializable only by inheritance
+        private final transient List<Transaction> transactions;
+        private final int lo;
+        private final int hi;
+        
+        SubtreeTask(List<Transaction> transactions, int lo, int hi) {
+            this.transactions = transactions;
+            this.lo = lo;
+            this.hi = hi;
+        }
+        
+        @Override
+        protected byte[] compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                return subtree(transactions, lo, hi);
+            }
+            int mid = lo + split(hi - lo);
+            SubtreeTask left = new SubtreeTask(transactions, lo, mid);
+            left.fork();
+            byte[] right = new SubtreeTask(transactions, mid, hi).compute();
+            return node(left.join(), right);
+        }
+    }
+}
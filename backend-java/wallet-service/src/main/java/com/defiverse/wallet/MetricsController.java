@@ -0,0 +1,23 @@
+package com.defiverse.wallet;
+
+import org.springframework.web.bind.annotation.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+// Prometheus scrape endpoint
+@RestController
+public class MetricsController {
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @GetMapping(value = "/metrics", produces = "text/plain; version=0.0.4; charset=utf-8")
+    public void scrape(HttpServletResponse response) throws IOException {
+        response.setContentType("text/plain; version=0.0.4; charset=utf-8");
+        PrintWriter out = response.getWriter();
+        metricsService.writePrometheus(out);
+        out.flush();
+    }
+}
@@ -0,0 +1,128 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.io.PrintWriter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Performance monitoring and metrics
+// Counters are striped LongAdders and gauges store raw double bits, so hot-path
+// updates never box. Latencies go into log-linear LatencyHistograms.
+@Service
+public class MetricsService {
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    
+    public void incrementCounter(String name) {
+        counter(name).increment();
+    }
+    
+    public void incrementCounter(String name, long delta) {
+        counter(name).add(delta);
+    }
+    
+    public void setGauge(String name, double value) {
+        AtomicLong gauge = gauges.get(name);
+        if (gauge == null) {
+            gauge = gauges.computeIfAbsent(name, key -> new AtomicLong());
+        }
+        gauge.set(Double.doubleToRawLongBits(value));
+    }
+    
+    // Callers on hot paths should keep the returned histogram instead of looking it up per event
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+    
+    public void recordLatency(String name, long nanos) {
+        histogram(name).record(nanos);
+    }
+    
+    public Map<String, Object> getMetrics() {
+        Map<String, Long> counterValues = new TreeMap<>();
+        counters.forEach((name, adder) -> counterValues.put(name, adder.sum()));
+        Map<String, Double> gaugeValues = new TreeMap<>();
+        gauges.forEach((name, bits) -> gaugeValues.put(name, Double.longBitsToDouble(bits.get())));
+        Map<String, Object> latencies = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getCount());
+            stats.put("p50Nanos", histogram.valueAtQuantile(0.5));
+            stats.put("p99Nanos", histogram.valueAtQuantile(0.99));
+            stats.put("maxNanos", histogram.getMax());
+            latencies.put(name, stats);
+        });
+        
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("counters", counterValues);
+        metrics.put("gauges", gaugeValues);
+        metrics.put("latencies", latencies);
+        metrics.put("timestamp", LocalDateTime.now());
+        return metrics;
+    }
+    
+    // Prometheus text exposition (format 0.0.4), written straight from the live
+    // metric maps without building intermediate collections
+    public void writePrometheus(PrintWriter out) {
+        long[] quantileValues = new long[PROMETHEUS_QUANTILES.length];
+        for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+            writeType(out, counter.getKey(), "_total", "counter");
+            writeName(out, counter.getKey(), "_total");
+            out.print(' ');
+            out.println(counter.getValue().sum());
+        }
+        for (Map.Entry<String, AtomicLong> gauge : gauges.entrySet()) {
+            writeType(out, gauge.getKey(), "", "gauge");
+            writeName(out, gauge.getKey(), "");
+            out.print(' ');
+            out.println(Double.longBitsToDouble(gauge.getValue().get()));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            histogram.valuesAtQuantiles(PROMETHEUS_QUANTILES, quantileValues);
+            writeType(out, entry.getKey(), "_seconds", "summary");
+            for (int i = 0; i < PROMETHEUS_QUANTILES.length; i++) {
+                writeName(out, entry.getKey(), "_seconds");
+                out.print("{quantile=\"");
+                out.print(PROMETHEUS_QUANTILES[i]);
+                out.print("\"} ");
+                out.println(quantileValues[i] / 1e9);
+            }
+            writeName(out, entry.getKey(), "_seconds_sum");
+            out.print(' ');
+            out.println(histogram.getSum() / 1e9);
+            writeName(out, entry.getKey(), "_seconds_count");
+            out.print(' ');
+            out.println(histogram.getCount());
+        }
+    }
+    
+    private static final double[] PROMETHEUS_QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    
+    private LongAdder counter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+    
+    private static void writeType(PrintWriter out, String name, String suffix, String type) {
+        out.print("# TYPE ");
+        writeName(out, name, suffix);
+        out.print(' ');
+        out.println(type);
+    }
+    
+    // Metric names use dots internally; Prometheus only allows [a-zA-Z0-9_:]
+    private static void writeName(PrintWriter out, String name, String suffix) {
+        out.print("defiverse_");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            out.print(Character.isLetterOrDigit(c) || c == ':' ? c : '_');
+        }
+        out.print(suffix);
+    }
+}
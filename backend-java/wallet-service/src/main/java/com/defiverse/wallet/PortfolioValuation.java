@@ -0,0 +1,125 @@
+package com.defiverse.wallet;
+
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+// Portfolio Valuation
+// Values many wallets against one price snapshot. Addresses are split into chunks
+// that are valued in parallel on the common fork-join pool; callers read chunks in
+// request order, each as soon as it is done, so output can stream while later
+// chunks are still running. Totals are merged from per-chunk partial sums.
+public final class PortfolioValuation {
+    
+    static final int CHUNK_SIZE = 512;
+    
+    private final PriceSnapshot prices;
+    private final List<CompletableFuture<Chunk>> chunks;
+    private final int walletCount;
+    
+    public PortfolioValuation(List<String> walletAddresses, PriceSnapshot prices,
+                              Function<String, List<TokenBalance>> loader) {
+        this.prices = prices;
+        this.walletCount = walletAddresses.size();
+        this.chunks = new ArrayList<>((walletCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        for (int from = 0; from < walletCount; from += CHUNK_SIZE) {
+            List<String> slice = walletAddresses.subList(from, Math.min(from + CHUNK_SIZE, walletCount));
+            chunks.add(CompletableFuture.supplyAsync(() -> new Chunk(slice, prices, loader), ForkJoinPool.commonPool()));
+        }
+    }
+    
+    public PriceSnapshot getPrices() { return prices; }
+    public int getChunkCount() { return chunks.size(); }
+    
+    // Blocks until the chunk is valued
+    public List<WalletValue> chunk(int index) {
+        return chunks.get(index).join().wallets;
+    }
+    
+    // Portfolio-wide totals; waits for every chunk
+    public Map<String, Object> totals() {
+        ValueTotal totalValue = new ValueTotal();
+        ValueTotal[] tokenBalances = ValueTotal.newArray(prices.size());
+        ValueTotal[] tokenValues = ValueTotal.newArray(prices.size());
+        for (CompletableFuture<Chunk> pending : chunks) {
+            Chunk chunk = pending.join();
+            totalValue.add(chunk.totalValue);
+            for (int i = 0; i < tokenBalances.length; i++) {
+                tokenBalances[i].add(chunk.tokenBalances[i]);
+                tokenValues[i].add(chunk.tokenValues[i]);
+            }
+        }
+        
+        Map<String, Object> tokens = new LinkedHashMap<>();
+        for (int i = 0; i < tokenBalances.length; i++) {
+            BigDecimal balance = tokenBalances[i].toDecimal();
+            if (balance.signum() != 0) {
+                Map<String, Object> token = new LinkedHashMap<>();
+                token.put("balance", balance);
+                token.put("price", Amounts.toDecimal(prices.priceUnitsAt(i)));
+                token.put("value", tokenValues[i].toDecimal());
+                tokens.put(prices.symbolAt(i), token);
+            }
+        }
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("wallets", walletCount);
+        totals.put("totalValue", totalValue.toDecimal());
+        totals.put("tokens", tokens);
+        totals.put("priceVersion", prices.getVersion());
+        return totals;
+    }
+    
+    public static final class WalletValue {
+        private final String walletAddress;
+        private final List<TokenBalance> balances;
+        private final BigDecimal totalValue;
+        
+        WalletValue(String walletAddress, List<TokenBalance> balances, BigDecimal totalValue) {
+            this.walletAddress = walletAddress;
+            this.balances = balances;
+            this.totalValue = totalValue;
+        }
+        
+        public String getWalletAddress() { return walletAddress; }
+        public List<TokenBalance> getBalances() { return balances; }
+        public BigDecimal getTotalValue() { return totalValue; }
+    }
+    
+    private static final class Chunk {
+        final List<WalletValue> wallets;
+        final ValueTotal totalValue = new ValueTotal();
+        // Indexed like the price snapshot; tokens it does not price are left out
+        final ValueTotal[] tokenBalances;
+        final ValueTotal[] tokenValues;
+        
+        Chunk(List<String> walletAddresses, PriceSnapshot prices, Function<String, List<TokenBalance>> loader) {
+            wallets = new ArrayList<>(walletAddresses.size());
+            tokenBalances = ValueTotal.newArray(prices.size());
+            tokenValues = ValueTotal.newArray(prices.size());
+            for (String walletAddress : walletAddresses) {
+                List<TokenBalance> balances = loader.apply(walletAddress);
+                ValueTotal walletValue = new ValueTotal();
+                for (TokenBalance balance : balances) {
+                    int index = prices.indexOf(balance.getTokenSymbol());
+                    if (index < 0) {
+                        continue;
+                    }
+                    tokenBalances[index].add(balance.getUnits());
+                    try {
+                        long valueUnits = Amounts.multiply(balance.getUnits(), prices.priceUnitsAt(index));
+                        walletValue.add(valueUnits);
+                        tokenValues[index].add(valueUnits);
+                    } catch (ArithmeticException e) {
+                        BigDecimal value = Amounts.toDecimal(balance.getUnits()).multiply(Amounts.toDecimal(prices.priceUnitsAt(index)));
+                        walletValue.add(value);
+                        tokenValues[index].add(value);
+                    }
+                }
+                totalValue.add(walletValue);
+                wallets.add(new WalletValue(walletAddress, balances, walletValue.toDecimal()));
+            }
+        }
+    }
+}
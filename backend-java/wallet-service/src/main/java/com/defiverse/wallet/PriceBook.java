@@ -0,0 +1,73 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Service;
+import java.util.*;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Price Book
+// Lock-free, copy-on-write token prices. Feeds publish batches of ticks as one new
+// versioned snapshot; readers just load the current snapshot and never block.
+// Prices are fixed-point longs (see Amounts), so ticks do not box.
+@Service
+public class PriceBook {
+    
+    public static final int PRICE_SCALE = Amounts.SCALE;
+    
+    private final AtomicReference<PriceSnapshot> current;
+    private final List<PriceListener> listeners = new CopyOnWriteArrayList<>();
+    
+    public PriceBook() {
+        // Initialize token prices
+        Map<String, BigDecimal> initial = new LinkedHashMap<>();
+        initial.put("BTC", new BigDecimal("45000"));
+        initial.put("ETH", new BigDecimal("3200"));
+        initial.put("USDT", new BigDecimal("1"));
+        initial.put("BANK", new BigDecimal("25"));
+        initial.put("GOV", new BigDecimal("15"));
+        
+        String[] symbols = initial.keySet().toArray(new String[0]);
+        long[] units = new long[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            units[i] = initial.get(symbols[i]).movePointRight(PRICE_SCALE).longValueExact();
+        }
+        current = new AtomicReference<>(new PriceSnapshot(symbols, units));
+    }
+    
+    public PriceSnapshot snapshot() {
+        return current.get();
+    }
+    
+    public void subscribe(PriceListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void setPrice(String tokenSymbol, BigDecimal price) {
+        int index = current.get().indexOf(tokenSymbol);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unsupported token: " + tokenSymbol);
+        }
+        long units = price.setScale(PRICE_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        applyTicks(new int[] {index}, new long[] {units}, 1);
+    }
+    
+    // Applies count ticks as a single new snapshot. Called by one feed thread at a time;
+    // the tick arrays are only read during the call, so feeds can reuse them.
+    public void applyTicks(int[] tokenIndexes, long[] priceUnits, int count) {
+        PriceSnapshot next;
+        long changedMask;
+        synchronized (this) {
+            PriceSnapshot previous = current.get();
+            next = previous.withTicks(tokenIndexes, priceUnits, count);
+            changedMask = next.changedMask(previous);
+            current.set(next);
+        }
+        if (changedMask != 0) {
+            for (PriceListener listener : listeners) {
+                listener.onPrices(next, changedMask);
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.defiverse.wallet;
+
+interface PriceFeed {
+    void start();
+    void stop();
+}
@@ -0,0 +1,6 @@
+package com.defiverse.wallet;
+
+interface PriceListener {
+    // changedMask has bit i set for every token index repriced in this snapshot
+    void onPrices(PriceSnapshot snapshot, long changedMask);
+}
@@ -0,0 +1,97 @@
+package com.defiverse.wallet;
+
+import java.util.*;
+import java.math.BigDecimal;
+
+// Immutable price snapshot; tokenVersions records the snapshot version that last
+// changed each token, so consumers can tell whether their tokens moved
+public final class PriceSnapshot {
+    private final String[] symbols;
+    private final Map<String, Integer> indexes;
+    private final long[] units;
+    private final long[] tokenVersions;
+    private final long version;
+    
+    PriceSnapshot(String[] symbols, long[] units) {
+        if (symbols.length > Long.SIZE) {
+            throw new IllegalArgumentException("At most " + Long.SIZE + " tokens are supported");
+        }
+        this.symbols = symbols;
+        this.indexes = new HashMap<>();
+        for (int i = 0; i < symbols.length; i++) {
+            indexes.put(symbols[i], i);
+        }
+        this.units = units;
+        this.tokenVersions = new long[symbols.length];
+        this.version = 0;
+    }
+    
+    private PriceSnapshot(PriceSnapshot base, long[] units, long[] tokenVersions) {
+        this.symbols = base.symbols;
+        this.indexes = base.indexes;
+        this.units = units;
+        this.tokenVersions = tokenVersions;
+        this.version = base.version + 1;
+    }
+    
+    PriceSnapshot withTicks(int[] tokenIndexes, long[] priceUnits, int count) {
+        long[] nextUnits = units.clone();
+        long[] nextVersions = tokenVersions.clone();
+        for (int i = 0; i < count; i++) {
+            int index = tokenIndexes[i];
+            if (nextUnits[index] != priceUnits[i]) {
+                nextUnits[index] = priceUnits[i];
+                nextVersions[index] = version + 1;
+            }
+        }
+        return new PriceSnapshot(this, nextUnits, nextVersions);
+    }
+    
+    long changedMask(PriceSnapshot previous) {
+        long mask = 0;
+        for (int i = 0; i < units.length; i++) {
+            if (units[i] != previous.units[i]) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+    
+    public long getVersion() { return version; }
+    public int size() { return symbols.length; }
+    public String symbolAt(int index) { return symbols[index]; }
+    public long priceUnitsAt(int index) { return units[index]; }
+    public long tokenVersionAt(int index) { return tokenVersions[index]; }
+    
+    public int indexOf(String tokenSymbol) {
+        Integer index = indexes.get(tokenSymbol);
+        return index == null ? -1 : index;
+    }
+    
+    public boolean supports(String tokenSymbol) {
+        return indexes.containsKey(tokenSymbol);
+    }
+    
+    public BigDecimal getPrice(String tokenSymbol) {
+        int index = indexOf(tokenSymbol);
+        return index < 0 ? null : BigDecimal.valueOf(units[index], PriceBook.PRICE_SCALE);
+    }
+    
+    public int[] indexesOf(List<TokenBalance> balances) {
+        int[] result = new int[balances.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = indexOf(balances.get(i).getTokenSymbol());
+        }
+        return result;
+    }
+    
+    // True when any of the given tokens was repriced after sinceVersion
+    public boolean changedSince(int[] tokenIndexes, long sinceVersion) {
+        for (int index : tokenIndexes) {
+            if (index >= 0 && tokenVersions[index] > sinceVersion) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
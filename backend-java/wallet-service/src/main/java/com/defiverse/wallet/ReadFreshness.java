@@ -0,0 +1,70 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Read Freshness
+// The transactions table is a read model projected from the journal, so it trails
+// confirmed transfers by up to a projection batch. lagMillis is the age of the
+// oldest confirmed transfer not yet projected. awaitFresh holds a read until the
+// lag is within its bound, for at most max-wait-ms; transfers never wait on readers.
+@Service
+public class ReadFreshness {
+    
+    @Autowired
+    private TransactionJournal journal;
+    
+    @Autowired
+    private JournalProjector journalProjector;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.reads.max-lag-ms:1000}")
+    private long defaultMaxLagMs;
+    
+    @Value("${defiverse.reads.max-wait-ms:2000}")
+    private long maxWaitMs;
+    
+    public long lagMillis() {
+        long projected = journalProjector.getProjectedSeq();
+        if (projected >= journal.getDurableSeq()) {
+            return 0;
+        }
+        try {
+            Transaction oldest = journal.read(projected + 1);
+            return Math.max(0, System.currentTimeMillis() - Timestamp.valueOf(oldest.getCreatedAt()).getTime());
+        } catch (IllegalArgumentException e) {
+            // Projected and released while we looked
+            return 0;
+        }
+    }
+    
+    // Returns the lag the read will see. Throws IllegalStateException when projection
+    // does not catch up within max-wait-ms.
+    public long awaitFresh(Long maxLagMs) {
+        long bound = maxLagMs != null ? maxLagMs : defaultMaxLagMs;
+        long lag = lagMillis();
+        metricsService.setGauge("reads.lag_ms", lag);
+        if (lag <= bound) {
+            return lag;
+        }
+        
+        // Everything durable now is at least lag old; once it is projected the read is fresh enough
+        metricsService.incrementCounter("reads.waited");
+        long target = journal.getDurableSeq();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (journalProjector.getProjectedSeq() < target) {
+            if (System.nanoTime() > deadline) {
+                metricsService.incrementCounter("reads.stale");
+                throw new IllegalStateException("Read model is " + lagMillis() + " ms behind");
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return lagMillis();
+    }
+}
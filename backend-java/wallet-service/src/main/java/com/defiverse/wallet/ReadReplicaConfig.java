@@ -0,0 +1,57 @@
+package com.defiverse.wallet;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import javax.sql.DataSource;
+import java.util.*;
+
+// Read Replica Routing
+// Read-only transactions go to a replica pool and everything else to the primary.
+// The replica defaults to the primary's database, which simulates one locally
+// while still keeping reads off the pool that transfers and projection use; point
+// defiverse.replica.jdbc-url at a real replica to split them. The lazy proxy
+// defers fetching a connection to the first statement, after the transaction's
+// read-only flag is known, and transactions that never hit the database (most
+// reads are served from the ledger) take no connection at all.
+@Configuration
+@ConditionalOnProperty(name = "defiverse.replica.enabled", havingValue = "true", matchIfMissing = true)
+public class ReadReplicaConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    // Starts from the primary's settings; defiverse.replica.* overrides any of them
+    @Bean
+    @ConfigurationProperties("defiverse.replica")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 MetricsService metricsService) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(metricsService);
+        routing.setTargetDataSources(Map.of(ReadWriteRoutingDataSource.PRIMARY, primary,
+                                            ReadWriteRoutingDataSource.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,42 @@
+package com.defiverse.wallet;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.function.Supplier;
+
+// Picks the pool when a connection is first needed. Startup loads and anything
+// that must see its own writes wrap the work in onPrimary, since a real replica
+// can trail the primary.
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+    
+    private static final ThreadLocal<Boolean> pinnedToPrimary = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    
+    private final MetricsService metricsService;
+    
+    public ReadWriteRoutingDataSource(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+    
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = pinnedToPrimary.get();
+        pinnedToPrimary.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            pinnedToPrimary.set(previous);
+        }
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!pinnedToPrimary.get() && TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            metricsService.incrementCounter("datasource.replica_connections");
+            return REPLICA;
+        }
+        metricsService.incrementCounter("datasource.primary_connections");
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,177 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.*;
+
+// Session Tokens
+// Short-lived HMAC-SHA256 tokens issued at login, so transfers skip BCrypt. A token
+// is base64url(version, userId, expiresAt, walletAddress) "." base64url(mac). Macs
+// are reused per thread, and recently verified tokens are kept in a bounded cache,
+// so repeat requests do no crypto at all. The cache is striped by token into
+// access-ordered LinkedHashMaps, each capped at its share of the size and evicting
+// its least recently used session in O(1) on insert.
+@Service
+public class SessionTokens {
+    
+    private static final byte TOKEN_VERSION = 1;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String BEARER_PREFIX = "Bearer ";
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.auth.token-secret:}")
+    private String tokenSecret;
+    
+    @Value("${defiverse.auth.token-ttl-ms:900000}")
+    private long tokenTtlMs;
+    
+    @Value("${defiverse.auth.token-cache-size:10000}")
+    private int tokenCacheSize;
+    
+    private static final int CACHE_STRIPES = 16;
+    
+    private final List<Map<String, Session>> verified = new ArrayList<>(CACHE_STRIPES);
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+    
+    @PostConstruct
+    public void init() {
+        int stripeCapacity = Math.max(1, (tokenCacheSize + CACHE_STRIPES - 1) / CACHE_STRIPES);
+        for (int i = 0; i < CACHE_STRIPES; i++) {
+            verified.add(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                    if (size() <= stripeCapacity) {
+                        return false;
+                    }
+                    metricsService.incrementCounter("auth.token_cache.evictions");
+                    return true;
+                }
+            });
+        }
+        byte[] secret;
+        if (tokenSecret.isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            System.out.println("⚠️ No defiverse.auth.token-secret set, sessions will not survive a restart");
+        } else {
+            secret = tokenSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+    
+    public LoginResult issue(User user) {
+        long expiresAtMillis = System.currentTimeMillis() + tokenTtlMs;
+        byte[] address = user.getWalletAddress().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(1 + Long.BYTES * 2 + address.length)
+                .put(TOKEN_VERSION).putLong(user.getId()).putLong(expiresAtMillis).put(address);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = encoder.encodeToString(payload.array()) + "." + encoder.encodeToString(sign(payload.array()));
+        return new LoginResult(token, user.getWalletAddress(),
+                new Timestamp(expiresAtMillis).toLocalDateTime());
+    }
+    
+    // Returns the session for an "Authorization: Bearer" header, or null when the
+    // header is missing, malformed, forged or expired
+    public Session verifyBearer(String authorization) {
+        if (authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return verify(authorization.substring(BEARER_PREFIX.length()));
+    }
+    
+    public Session verify(String token) {
+        long now = System.currentTimeMillis();
+        Map<String, Session> stripe = verified.get(Math.floorMod(token.hashCode(), CACHE_STRIPES));
+        Session cached;
+        synchronized (stripe) {
+            cached = stripe.get(token);
+            if (cached != null && cached.expiresAtMillis <= now) {
+                stripe.remove(token);
+                return null;
+            }
+        }
+        if (cached != null) {
+            metricsService.incrementCounter("auth.token_cache.hits");
+            return cached;
+        }
+        metricsService.incrementCounter("auth.token_cache.misses");
+        
+        Session session = decode(token);
+        if (session == null || session.expiresAtMillis <= now) {
+            metricsService.incrementCounter("auth.token_rejected");
+            return null;
+        }
+        synchronized (stripe) {
+            stripe.put(token, session);
+        }
+        return session;
+    }
+    
+    private Session decode(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(token.substring(0, dot));
+            signature = decoder.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (payload.length <= 1 + Long.BYTES * 2 || payload[0] != TOKEN_VERSION
+                || !MessageDigest.isEqual(sign(payload), signature)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        long userId = buffer.getLong(1);
+        long expiresAtMillis = buffer.getLong(1 + Long.BYTES);
+        int addressOffset = 1 + Long.BYTES * 2;
+        String walletAddress = new String(payload, addressOffset, payload.length - addressOffset, StandardCharsets.UTF_8);
+        return new Session(userId, walletAddress, expiresAtMillis);
+    }
+    
+    private byte[] sign(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+    
+    public static final class Session {
+        private final long userId;
+        private final String walletAddress;
+        private final long expiresAtMillis;
+        
+        Session(long userId, String walletAddress, long expiresAtMillis) {
+            this.userId = userId;
+            this.walletAddress = walletAddress;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+        
+        public long getUserId() { return userId; }
+        public String getWalletAddress() { return walletAddress; }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+    }
+}
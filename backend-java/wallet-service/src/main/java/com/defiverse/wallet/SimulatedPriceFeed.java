@@ -0,0 +1,81 @@
+package com.defiverse.wallet;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Simulated Price Feed
+// Local random-walk feed that ticks every token at a configurable rate. Tick
+// buffers are reused, and each scheduling period publishes one snapshot. Opt-in
+// with defiverse.prices.feed=simulated; without a feed the seeded prices stay put.
+@Service
+@ConditionalOnProperty(name = "defiverse.prices.feed", havingValue = "simulated")
+public class SimulatedPriceFeed implements PriceFeed {
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Value("${defiverse.prices.simulated.ticks-per-second:10}")
+    private int ticksPerSecond;
+    
+    @Value("${defiverse.prices.simulated.volatility:0.0005}")
+    private double volatility;
+    
+    private static final long PERIOD_MS = 10;
+    
+    private ScheduledExecutorService scheduler;
+    private int[] tickIndexes;
+    private long[] tickUnits;
+    private double pendingTicks;
+    
+    @PostConstruct
+    @Override
+    public void start() {
+        int maxTicksPerPeriod = Math.max(1, (int) Math.ceil(ticksPerSecond * PERIOD_MS / 1000.0));
+        tickIndexes = new int[maxTicksPerPeriod];
+        tickUnits = new long[maxTicksPerPeriod];
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "price-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::tick, PERIOD_MS, PERIOD_MS, TimeUnit.MILLISECONDS);
+        System.out.println("📈 Simulated price feed started at " + ticksPerSecond + " ticks/s");
+    }
+    
+    @PreDestroy
+    @Override
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+    
+    private void tick() {
+        pendingTicks += ticksPerSecond * PERIOD_MS / 1000.0;
+        int count = Math.min((int) pendingTicks, tickIndexes.length);
+        if (count == 0) {
+            return;
+        }
+        pendingTicks -= count;
+        
+        PriceSnapshot snapshot = priceBook.snapshot();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            int index = random.nextInt(snapshot.size());
+            long units = i > 0 && tickIndexes[i - 1] == index ? tickUnits[i - 1] : snapshot.priceUnitsAt(index);
+            tickIndexes[i] = index;
+            tickUnits[i] = Math.max(1, Math.round(units * (1 + volatility * random.nextGaussian())));
+        }
+        try {
+            priceBook.applyTicks(tickIndexes, tickUnits, count);
+        } catch (Exception e) {
+            System.err.println("❌ Price tick failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token Aggregates
+// Per-token total supply, holder count and a holders index ordered by balance,
+// maintained from ledger changes: O(1) for supply and holder count, O(log n) for
+// the index. Reads are served from memory. A periodic reconcile copies one
+// consistent ledger cut, compares it with the aggregates outside the ledger locks
+// and rebuilds any token whose aggregates drifted.
+@Service
+public class TokenAggregates implements BalanceListener {
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.aggregates.reconcile-interval-ms:60000}")
+    private long reconcileIntervalMs;
+    
+    private final Map<String, TokenStats> tokens = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reconciler;
+    // Changes since the reconcile cut, recorded only while a reconcile is running
+    private volatile Queue<BalanceChange> changesSinceCut;
+    
+    @PostConstruct
+    public void start() {
+        // Seed and subscribe inside the same cut so no change is missed or counted twice
+        balanceLedger.snapshot(
+                (walletAddress, tokenSymbol, units) ->
+                        tokens.computeIfAbsent(tokenSymbol, symbol -> new TokenStats()).seed(walletAddress, units),
+                () -> balanceLedger.addListener(this));
+        
+        reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "aggregates-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reconciler.scheduleWithFixedDelay(this::reconcile, reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        reconciler.shutdownNow();
+    }
+    
+    @Override
+    public void onBalanceChanged(String walletAddress, String tokenSymbol, long oldUnits, long newUnits) {
+        tokens.computeIfAbsent(tokenSymbol, symbol -> new TokenStats()).apply(walletAddress, oldUnits, newUnits);
+        Queue<BalanceChange> changes = changesSinceCut;
+        if (changes != null) {
+            changes.add(new BalanceChange(walletAddress, tokenSymbol, oldUnits, newUnits));
+        }
+    }
+    
+    public BigDecimal getTotalSupply(String tokenSymbol) {
+        TokenStats stats = tokens.get(tokenSymbol);
+        return stats == null ? BigDecimal.ZERO : stats.supply();
+    }
+    
+    public long getHolderCount(String tokenSymbol) {
+        TokenStats stats = tokens.get(tokenSymbol);
+        return stats == null ? 0 : stats.holders.sum();
+    }
+    
+    // Largest balances first, ties broken by address
+    public List<TokenBalanceHolder> getTopHolders(String tokenSymbol, int limit) {
+        TokenStats stats = tokens.get(tokenSymbol);
+        if (stats == null) {
+            return List.of();
+        }
+        List<TokenBalanceHolder> top = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Holding holding : stats.index) {
+            if (top.size() >= limit) {
+                break;
+            }
+            // A wallet mid-update can briefly appear at both its old and new balance
+            if (seen.add(holding.walletAddress)) {
+                top.add(new TokenBalanceHolder(holding.walletAddress, holding.units));
+            }
+        }
+        return top;
+    }
+    
+    // Under every stripe it only copies balances and each token's fingerprint and
+    // starts recording changes. Comparing and rebuilding run unlocked; a drifted
+    // token's rebuilt stats replay the recorded changes in a short locked swap.
+    void reconcile() {
+        try {
+            Map<String, TokenRows> rows = new HashMap<>();
+            Map<String, Fingerprint> atCut = new HashMap<>();
+            balanceLedger.snapshot(
+                    (walletAddress, tokenSymbol, units) ->
+                            rows.computeIfAbsent(tokenSymbol, symbol -> new TokenRows()).add(walletAddress, units),
+                    () -> {
+                        tokens.forEach((tokenSymbol, stats) -> atCut.put(tokenSymbol, stats.fingerprint()));
+                        changesSinceCut = new ConcurrentLinkedQueue<>();
+                    });
+            
+            Map<String, TokenStats> rebuilt = new HashMap<>();
+            Set<String> symbols = new HashSet<>(rows.keySet());
+            symbols.addAll(atCut.keySet());
+            for (String tokenSymbol : symbols) {
+                TokenRows actual = rows.getOrDefault(tokenSymbol, new TokenRows());
+                if (!actual.fingerprint().equals(atCut.get(tokenSymbol))) {
+                    rebuilt.put(tokenSymbol, actual.toStats());
+                }
+            }
+            if (rebuilt.isEmpty()) {
+                return;
+            }
+            balanceLedger.whileLocked(() -> {
+                for (BalanceChange change : changesSinceCut) {
+                    TokenStats stats = rebuilt.get(change.tokenSymbol);
+                    if (stats != null) {
+                        stats.apply(change.walletAddress, change.oldUnits, change.newUnits);
+                    }
+                }
+                rebuilt.forEach((tokenSymbol, stats) -> {
+                    System.err.println("⚠️ Token aggregates for " + tokenSymbol + " drifted, rebuilding");
+                    metricsService.incrementCounter("aggregates.drift");
+                    tokens.put(tokenSymbol, stats);
+                });
+            });
+        } catch (Exception e) {
+            System.err.println("❌ Token aggregate reconcile failed: " + e.getMessage());
+        } finally {
+            changesSinceCut = null;
+        }
+    }
+    
+    private static final class TokenStats {
+        // Supply at seed time plus every change since; seeding spills to BigDecimal
+        // so large supplies cannot overflow
+        private BigDecimal seededSupply = BigDecimal.ZERO;
+        private long seededUnits;
+        final LongAdder supplyDelta = new LongAdder();
+        final LongAdder holders = new LongAdder();
+        final ConcurrentSkipListSet<Holding> index = new ConcurrentSkipListSet<>();
+        // Sum of Holding.checksum over the index, so it compares without a copy
+        final LongAdder indexChecksum = new LongAdder();
+        
+        // Only called before the stats are published
+        void seed(String walletAddress, long units) {
+            if (seededUnits > Long.MAX_VALUE - units) {
+                seededSupply = seededSupply.add(Amounts.toDecimal(seededUnits));
+                seededUnits = 0;
+            }
+            seededUnits += units;
+            if (units > 0) {
+                holders.increment();
+                add(new Holding(walletAddress, units));
+            }
+        }
+        
+        // Changes for one wallet arrive serialized under its ledger stripe
+        void apply(String walletAddress, long oldUnits, long newUnits) {
+            supplyDelta.add(newUnits - oldUnits);
+            if (newUnits > 0) {
+                add(new Holding(walletAddress, newUnits));
+            }
+            if (oldUnits > 0 && oldUnits != newUnits) {
+                Holding previous = new Holding(walletAddress, oldUnits);
+                if (index.remove(previous)) {
+                    indexChecksum.add(-previous.checksum());
+                }
+            }
+            if (oldUnits == 0 && newUnits > 0) {
+                holders.increment();
+            } else if (oldUnits > 0 && newUnits == 0) {
+                holders.decrement();
+            }
+        }
+        
+        BigDecimal supply() {
+            return seededSupply.add(Amounts.toDecimal(seededUnits)).add(Amounts.toDecimal(supplyDelta.sum()));
+        }
+        
+        // Consistent only while no change is being applied, i.e. under every stripe
+        Fingerprint fingerprint() {
+            return new Fingerprint(supply(), holders.sum(), indexChecksum.sum());
+        }
+        
+        private void add(Holding holding) {
+            if (index.add(holding)) {
+                indexChecksum.add(holding.checksum());
+            }
+        }
+    }
+    
+    // Balances of one token copied out of the ledger cut
+    private static final class TokenRows {
+        private String[] walletAddresses = new String[16];
+        private long[] units = new long[16];
+        private int size;
+        
+        void add(String walletAddress, long balance) {
+            if (size == units.length) {
+                walletAddresses = Arrays.copyOf(walletAddresses, size * 2);
+                units = Arrays.copyOf(units, size * 2);
+            }
+            walletAddresses[size] = walletAddress;
+            units[size++] = balance;
+        }
+        
+        Fingerprint fingerprint() {
+            ValueTotal supply = new ValueTotal();
+            long holders = 0;
+            long checksum = 0;
+            for (int i = 0; i < size; i++) {
+                supply.add(units[i]);
+                if (units[i] > 0) {
+                    holders++;
+                    checksum += Holding.checksum(walletAddresses[i], units[i]);
+                }
+            }
+            return new Fingerprint(supply.toDecimal(), holders, checksum);
+        }
+        
+        TokenStats toStats() {
+            TokenStats stats = new TokenStats();
+            for (int i = 0; i < size; i++) {
+                stats.seed(walletAddresses[i], units[i]);
+            }
+            return stats;
+        }
+    }
+    
+    private static final class Fingerprint {
+        final BigDecimal supply;
+        final long holders;
+        final long indexChecksum;
+        
+        Fingerprint(BigDecimal supply, long holders, long indexChecksum) {
+            this.supply = supply;
+            this.holders = holders;
+            this.indexChecksum = indexChecksum;
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Fingerprint)) {
+                return false;
+            }
+            Fingerprint that = (Fingerprint) other;
+            return supply.compareTo(that.supply) == 0 && holders == that.holders && indexChecksum == that.indexChecksum;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(holders) * 31 + Long.hashCode(indexChecksum);
+        }
+    }
+    
+    private static final class BalanceChange {
+        final String walletAddress;
+        final String tokenSymbol;
+        final long oldUnits;
+        final long newUnits;
+        
+        BalanceChange(String walletAddress, String tokenSymbol, long oldUnits, long newUnits) {
+            this.walletAddress = walletAddress;
+            this.tokenSymbol = tokenSymbol;
+            this.oldUnits = oldUnits;
+            this.newUnits = newUnits;
+        }
+    }
+    
+    private static final class Holding implements Comparable<Holding> {
+        final String walletAddress;
+        final long units;
+        
+        Holding(String walletAddress, long units) {
+            this.walletAddress = walletAddress;
+            this.units = units;
+        }
+        
+        @Override
+        public int compareTo(Holding other) {
+            int byUnits = Long.compare(other.units, units);
+            return byUnits != 0 ? byUnits : walletAddress.compareTo(other.walletAddress);
+        }
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Holding && compareTo((Holding) other) == 0;
+        }
+        
+        @Override
+        public int hashCode() {
+            return walletAddress.hashCode() * 31 + Long.hashCode(units);
+        }
+        
+        long checksum() {
+            return checksum(walletAddress, units);
+        }
+        
+        // murmur3 fmix64 of the address hash and balance, summed into the index checksum
+        static long checksum(String walletAddress, long units) {
+            long hash = walletAddress.hashCode() * 0x9e3779b97f4a7c15L + units;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
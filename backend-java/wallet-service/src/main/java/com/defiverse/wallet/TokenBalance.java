@@ -0,0 +1,25 @@
+package com.defiverse.wallet;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+// Point-in-time ledger balance of one token, in fixed-point units
+public final class TokenBalance {
+    private final String tokenSymbol;
+    private final long units;
+    private final long lastUpdatedMillis;
+    
+    public TokenBalance(String tokenSymbol, long units, long lastUpdatedMillis) {
+        this.tokenSymbol = tokenSymbol;
+        this.units = units;
+        this.lastUpdatedMillis = lastUpdatedMillis;
+    }
+    
+    public String getTokenSymbol() { return tokenSymbol; }
+    public long getUnits() { return units; }
+    public long getLastUpdatedMillis() { return lastUpdatedMillis; }
+    
+    public LocalDateTime getLastUpdated() {
+        return new Timestamp(lastUpdatedMillis).toLocalDateTime();
+    }
+}
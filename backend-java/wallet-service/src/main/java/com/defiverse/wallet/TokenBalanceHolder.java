@@ -0,0 +1,17 @@
+package com.defiverse.wallet;
+
+import java.math.BigDecimal;
+
+// One entry of a token's rich list
+public final class TokenBalanceHolder {
+    private final String walletAddress;
+    private final long units;
+    
+    public TokenBalanceHolder(String walletAddress, long units) {
+        this.walletAddress = walletAddress;
+        this.units = units;
+    }
+    
+    public String getWalletAddress() { return walletAddress; }
+    public BigDecimal getBalance() { return Amounts.toDecimal(units); }
+}
@@ -0,0 +1,96 @@
+package com.defiverse.wallet;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+
+// Transaction Entity
+@Entity
+@Table(name = "transactions", indexes = {
+    @Index(name = "idx_transactions_from_created", columnList = "fromAddress, createdAt"),
+    @Index(name = "idx_transactions_to_created", columnList = "toAddress, createdAt"),
+    @Index(name = "idx_transactions_block", columnList = "blockNumber"),
+    @Index(name = "idx_transactions_created", columnList = "createdAt")
+})
+public class Transaction {
+    @Id
+    private String id;
+    
+    @NotNull
+    private String fromAddress;
+    
+    @NotNull
+    private String toAddress;
+    
+    @NotNull
+    @Column(precision = 36, scale = 18)
+    private BigDecimal amount;
+    
+    @NotNull
+    private String tokenSymbol;
+    
+    @Column(precision = 36, scale = 18)
+    private BigDecimal gasFee;
+    
+    @Enumerated(EnumType.STRING)
+    private TransactionStatus status = TransactionStatus.PENDING;
+    
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime confirmedAt;
+    
+    private String blockHash;
+    private Long blockNumber;
+    
+    // Constructors, getters, setters
+    public Transaction() {}
+    
+    public Transaction(String id, String fromAddress, String toAddress, 
+                      BigDecimal amount, String tokenSymbol, BigDecimal gasFee) {
+        this.id = id;
+        this.fromAddress = fromAddress;
+        this.toAddress = toAddress;
+        this.amount = amount;
+        this.tokenSymbol = tokenSymbol;
+        this.gasFee = gasFee;
+    }
+    
+    // Getters and setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+    
+    public String getFromAddress() { return fromAddress; }
+    public void setFromAddress(String fromAddress) { this.fromAddress = fromAddress; }
+    
+    public String getToAddress() { return toAddress; }
+    public void setToAddress(String toAddress) { this.toAddress = toAddress; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getTokenSymbol() { return tokenSymbol; }
+    public void setTokenSymbol(String tokenSymbol) { this.tokenSymbol = tokenSymbol; }
+    
+    public BigDecimal getGasFee() { return gasFee; }
+    public void setGasFee(BigDecimal gasFee) { this.gasFee = gasFee; }
+    
+    public TransactionStatus getStatus() { return status; }
+    public void setStatus(TransactionStatus status) { 
+        this.status = status;
+        if (status == TransactionStatus.CONFIRMED) {
+            this.confirmedAt = LocalDateTime.now();
+        }
+    }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getConfirmedAt() { return confirmedAt; }
+    public void setConfirmedAt(LocalDateTime confirmedAt) { this.confirmedAt = confirmedAt; }
+    
+    public String getBlockHash() { return blockHash; }
+    public void setBlockHash(String blockHash) { this.blockHash = blockHash; }
+    
+    public Long getBlockNumber() { return blockNumber; }
+    public void setBlockNumber(Long blockNumber) { this.blockNumber = blockNumber; }
+}
@@ -0,0 +1,536 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+// Transaction Journal
+// Write-ahead log of confirmed transactions. Fixed-size binary records are appended
+// to memory-mapped segment files and a sync thread forces them to disk in groups:
+// every append that lands while one force is running rides on the next one.
+// Transfers are acknowledged once their records are durable. JournalProjector
+// loads durable records into the database and checkpoints its progress.
+@Service
+public class TransactionJournal {
+    
+    static final int RECORD_SIZE = 256;
+    static final int MAX_ADDRESS_BYTES = 63;
+    private static final int MAX_TOKEN_BYTES = 15;
+    private static final int MAX_HASH_BYTES = 39;
+    private static final int RECORD_MAGIC = 0x44465458; // "DFTX"
+    
+    // Record layout: magic, crc32 of bytes 8..255, sequence, id (two longs), amount and
+    // gas fee units, created/confirmed epoch nanos (UTC), block number, then
+    // length-prefixed from, to, token and block hash
+    private static final int CRC_OFFSET = 4;
+    private static final int BODY_OFFSET = 8;
+    private static final int FROM_OFFSET = 72;
+    private static final int TO_OFFSET = FROM_OFFSET + 1 + MAX_ADDRESS_BYTES;
+    private static final int TOKEN_OFFSET = TO_OFFSET + 1 + MAX_ADDRESS_BYTES;
+    private static final int HASH_OFFSET = TOKEN_OFFSET + 1 + MAX_TOKEN_BYTES;
+    
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.journal.dir:data/journal}")
+    private String directory;
+    
+    @Value("${defiverse.journal.segment-records:65536}")
+    private int segmentRecords;
+    
+    // false acknowledges once records are in the mapped files: they survive a process
+    // crash but not an OS crash or power loss
+    @Value("${defiverse.journal.fsync:true}")
+    private boolean fsync;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final ConcurrentSkipListMap<Long, JournalSegment> segments = new ConcurrentSkipListMap<>();
+    private final List<JournalSegment> rolled = new ArrayList<>(); // full segments not yet forced
+    
+    private Path dir;
+    private JournalSegment active;
+    private long nextSeq;
+    private long writtenSeq;
+    private volatile long durableSeq;
+    private volatile long checkpointSeq;
+    private long recoveredSeq;
+    private boolean running;
+    private Thread syncer;
+    private LatencyHistogram fsyncLatency;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        if ((long) segmentRecords * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Journal segments are limited to 2 GB");
+        }
+        fsyncLatency = metricsService.histogram("journal.fsync");
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        checkpointSeq = readCheckpoint();
+        
+        // Scan segments in order; the first invalid record ends the journal, since
+        // anything after it was never acknowledged
+        List<Long> bases = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                bases.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        Collections.sort(bases);
+        
+        nextSeq = checkpointSeq + 1;
+        boolean ended = false;
+        for (long base : bases) {
+            Path path = segmentPath(base);
+            if (segments.isEmpty() && base > nextSeq) {
+                System.err.println("⚠️ Journal records " + nextSeq + ".." + (base - 1) + " are missing, resuming at " + base);
+                checkpointSeq = base - 1;
+                nextSeq = base;
+            }
+            if (ended || base != nextSeq && !segments.isEmpty()) {
+                System.err.println("⚠️ Discarding journal segment " + path.getFileName() + " past the end of the log");
+                Files.delete(path);
+                continue;
+            }
+            JournalSegment segment = new JournalSegment(path, base, (int) (Files.size(path) / RECORD_SIZE));
+            int valid = segment.scan();
+            segments.put(base, segment);
+            nextSeq = base + valid;
+            if (valid < segment.capacity) {
+                segment.clearFrom(valid);
+                ended = true;
+            }
+        }
+        
+        if (segments.isEmpty() || nextSeq - segments.lastKey() >= segments.lastEntry().getValue().capacity) {
+            JournalSegment segment = new JournalSegment(segmentPath(nextSeq), nextSeq, segmentRecords);
+            segments.put(nextSeq, segment);
+        }
+        active = segments.lastEntry().getValue();
+        writtenSeq = nextSeq - 1;
+        durableSeq = writtenSeq;
+        recoveredSeq = writtenSeq;
+        running = true;
+        
+        if (fsync) {
+            syncer = new Thread(this::syncLoop, "journal-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        }
+        System.out.println("📓 Transaction journal opened at seq " + writtenSeq + " (checkpoint " + checkpointSeq
+                + ", " + segments.size() + " segments)");
+    }
+    
+    @PreDestroy
+    public void close() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            appended.signalAll();
+            synced.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        if (syncer != null) {
+            syncer.join(5000);
+        }
+        for (JournalSegment segment : segments.values()) {
+            segment.force();
+            segment.close();
+        }
+    }
+    
+    // Appends confirmed transactions as one group and blocks until every record is
+    // durable. Returns the sequence number of the last record. Nothing is written
+    // when this throws before the records are assigned sequence numbers.
+    public long append(List<Transaction> transactions) {
+        long lastSeq = write(transactions);
+        awaitDurable(lastSeq);
+        return lastSeq;
+    }
+    
+    // Assigns sequence numbers and writes the records without waiting for them to
+    // be durable; pair with awaitDurable before acknowledging. Throws without
+    // writing anything, so callers may run it before applying the effects.
+    public long write(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return writtenSeq();
+        }
+        byte[][] records = new byte[transactions.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = encode(transactions.get(i));
+        }
+        
+        long lastSeq;
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Transaction journal is closed");
+            }
+            List<JournalSegment> targets = reserve(records.length);
+            CRC32 crc = new CRC32();
+            int target = 0;
+            for (byte[] record : records) {
+                JournalSegment segment = targets.get(target);
+                if (nextSeq - segment.baseSeq >= segment.capacity) {
+                    segment = targets.get(++target);
+                }
+                long seq = nextSeq++;
+                ByteBuffer view = ByteBuffer.wrap(record);
+                view.putLong(BODY_OFFSET, seq);
+                crc.reset();
+                crc.update(record, BODY_OFFSET, RECORD_SIZE - BODY_OFFSET);
+                view.putInt(CRC_OFFSET, (int) crc.getValue());
+                segment.buffer.put(segment.offsetOf(seq), record);
+            }
+            lastSeq = nextSeq - 1;
+            writtenSeq = lastSeq;
+            if (fsync) {
+                appended.signal();
+            } else {
+                durableSeq = lastSeq;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return lastSeq;
+    }
+    
+    // Reads a durable record back as a confirmed transaction
+    public Transaction read(long seq) {
+        if (seq > durableSeq) {
+            throw new IllegalArgumentException("Journal record " + seq + " is not durable yet");
+        }
+        Map.Entry<Long, JournalSegment> entry = segments.floorEntry(seq);
+        if (entry == null || seq - entry.getKey() >= entry.getValue().capacity) {
+            throw new IllegalArgumentException("Journal record " + seq + " was released");
+        }
+        JournalSegment segment = entry.getValue();
+        byte[] record = new byte[RECORD_SIZE];
+        segment.buffer.get(segment.offsetOf(seq), record);
+        return decode(record);
+    }
+    
+    // Records the projector's progress and releases segments it has fully consumed
+    public void checkpoint(long seq) throws IOException {
+        Path temp = dir.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, seq));
+            channel.force(true);
+        }
+        Files.move(temp, dir.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        checkpointSeq = seq;
+        
+        lock.lock();
+        try {
+            for (JournalSegment segment : segments.values()) {
+                if (segment == active || segment.baseSeq + segment.capacity - 1 > seq) {
+                    break;
+                }
+                segments.remove(segment.baseSeq);
+                segment.close();
+                Files.deleteIfExists(segment.path);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long getDurableSeq() { return durableSeq; }
+    
+    private long writtenSeq() {
+        lock.lock();
+        try {
+            return writtenSeq;
+        } finally {
+            lock.unlock();
+        }
+    }
+    public long getCheckpointSeq() { return checkpointSeq; }
+    
+    // Highest sequence found on disk at startup; records up to it may already have
+    // been projected before the checkpoint was written
+    public long getRecoveredSeq() { return recoveredSeq; }
+    
+    // Blocks until every record up to seq is durable. Records written before a
+    // close are still forced to disk by it, so a throw here leaves the outcome unknown.
+    public void awaitDurable(long seq) {
+        if (durableSeq >= seq) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durableSeq < seq) {
+                if (!running) {
+                    throw new IllegalStateException("Transaction journal closed before sync; the transfer may still be recorded");
+                }
+                synced.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    // Caller holds the lock. Maps every segment the next count records need before
+    // anything is written, so a failed roll never leaves a partial append.
+    private List<JournalSegment> reserve(int count) {
+        List<JournalSegment> targets = new ArrayList<>(2);
+        targets.add(active);
+        long free = active.baseSeq + active.capacity - nextSeq;
+        long base = nextSeq + free;
+        List<JournalSegment> created = new ArrayList<>();
+        try {
+            for (long remaining = count - free; remaining > 0; remaining -= segmentRecords) {
+                JournalSegment segment = new JournalSegment(segmentPath(base), base, segmentRecords);
+                created.add(segment);
+                base += segmentRecords;
+            }
+        } catch (IOException e) {
+            for (JournalSegment segment : created) {
+                segment.close();
+                try {
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException ignored) {
+                    // Best effort; recovery discards segments past the end of the log
+                }
+            }
+            throw new UncheckedIOException("Could not roll journal segment", e);
+        }
+        for (JournalSegment segment : created) {
+            if (fsync) {
+                rolled.add(active);
+            }
+            segments.put(segment.baseSeq, segment);
+            active = segment;
+            targets.add(segment);
+        }
+        return targets;
+    }
+    
+    private void syncLoop() {
+        while (true) {
+            long target;
+            List<JournalSegment> toForce;
+            lock.lock();
+            try {
+                while (running && writtenSeq == durableSeq) {
+                    appended.awaitUninterruptibly();
+                }
+                if (writtenSeq == durableSeq) {
+                    return;
+                }
+                target = writtenSeq;
+                toForce = new ArrayList<>(rolled);
+                toForce.add(active);
+                rolled.clear();
+            } finally {
+                lock.unlock();
+            }
+            
+            long startedAt = System.nanoTime();
+            try {
+                for (JournalSegment segment : toForce) {
+                    segment.force();
+                }
+            } catch (UncheckedIOException e) {
+                // Acknowledgements wait until a later force succeeds
+                System.err.println("❌ Journal fsync failed, retrying: " + e.getMessage());
+                lock.lock();
+                try {
+                    toForce.remove(toForce.size() - 1);
+                    rolled.addAll(0, toForce);
+                } finally {
+                    lock.unlock();
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+            fsyncLatency.record(System.nanoTime() - startedAt);
+            
+            lock.lock();
+            try {
+                durableSeq = target;
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    private long readCheckpoint() throws IOException {
+        Path path = dir.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        return ByteBuffer.wrap(Files.readAllBytes(path)).getLong();
+    }
+    
+    private Path segmentPath(long baseSeq) {
+        return dir.resolve(String.format("%020d", baseSeq) + SEGMENT_SUFFIX);
+    }
+    
+    private static byte[] encode(Transaction transaction) {
+        byte[] record = new byte[RECORD_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        UUID id = UUID.fromString(transaction.getId());
+        buffer.putInt(0, RECORD_MAGIC);
+        buffer.putLong(16, id.getMostSignificantBits());
+        buffer.putLong(24, id.getLeastSignificantBits());
+        buffer.putLong(32, Amounts.toUnits(transaction.getAmount()));
+        buffer.putLong(40, Amounts.toUnits(transaction.getGasFee()));
+        buffer.putLong(48, epochNanos(transaction.getCreatedAt()));
+        buffer.putLong(56, epochNanos(transaction.getConfirmedAt()));
+        buffer.putLong(64, transaction.getBlockNumber() == null ? -1 : transaction.getBlockNumber());
+        putString(buffer, FROM_OFFSET, transaction.getFromAddress(), MAX_ADDRESS_BYTES);
+        putString(buffer, TO_OFFSET, transaction.getToAddress(), MAX_ADDRESS_BYTES);
+        putString(buffer, TOKEN_OFFSET, transaction.getTokenSymbol(), MAX_TOKEN_BYTES);
+        putString(buffer, HASH_OFFSET, transaction.getBlockHash(), MAX_HASH_BYTES);
+        return record;
+    }
+    
+    private static Transaction decode(byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        Transaction transaction = new Transaction(
+            new UUID(buffer.getLong(16), buffer.getLong(24)).toString(),
+            getString(buffer, FROM_OFFSET),
+            getString(buffer, TO_OFFSET),
+            Amounts.toDecimal(buffer.getLong(32)),
+            getString(buffer, TOKEN_OFFSET),
+            Amounts.toDecimal(buffer.getLong(40))
+        );
+        transaction.setStatus(TransactionStatus.CONFIRMED);
+        transaction.setCreatedAt(fromEpochNanos(buffer.getLong(48)));
+        transaction.setConfirmedAt(fromEpochNanos(buffer.getLong(56)));
+        long blockNumber = buffer.getLong(64);
+        transaction.setBlockNumber(blockNumber < 0 ? null : blockNumber);
+        transaction.setBlockHash(getString(buffer, HASH_OFFSET));
+        return transaction;
+    }
+    
+    // Throws IllegalArgumentException for values the fixed layout cannot hold
+    static void checkEncodable(String value, int maxBytes, String field) {
+        if (value != null && value.getBytes(StandardCharsets.UTF_8).length > maxBytes) {
+            throw new IllegalArgumentException(field + " exceeds " + maxBytes + " bytes");
+        }
+    }
+    
+    private static void putString(ByteBuffer buffer, int offset, String value, int maxBytes) {
+        checkEncodable(value, maxBytes, "Journal field");
+        if (value == null) {
+            buffer.put(offset, (byte) 0xFF);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+    
+    private static String getString(ByteBuffer buffer, int offset) {
+        int length = buffer.get(offset) & 0xFF;
+        if (length == 0xFF) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static long epochNanos(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+    
+    private static LocalDateTime fromEpochNanos(long nanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+    
+    private static final class JournalSegment {
+        final Path path;
+        final long baseSeq;
+        final int capacity;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        
+        JournalSegment(Path path, long baseSeq, int capacity) throws IOException {
+            this.path = path;
+            this.baseSeq = baseSeq;
+            this.capacity = capacity;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * RECORD_SIZE);
+        }
+        
+        int offsetOf(long seq) {
+            return (int) (seq - baseSeq) * RECORD_SIZE;
+        }
+        
+        // Counts the leading records with a valid magic, sequence and checksum
+        int scan() {
+            CRC32 crc = new CRC32();
+            for (int i = 0; i < capacity; i++) {
+                int offset = i * RECORD_SIZE;
+                if (buffer.getInt(offset) != RECORD_MAGIC || buffer.getLong(offset + BODY_OFFSET) != baseSeq + i) {
+                    return i;
+                }
+                crc.reset();
+                crc.update(buffer.slice(offset + BODY_OFFSET, RECORD_SIZE - BODY_OFFSET));
+                if ((int) crc.getValue() != buffer.getInt(offset + CRC_OFFSET)) {
+                    return i;
+                }
+            }
+            return capacity;
+        }
+        
+        // Zeroes a torn tail so it is never mistaken for records after a later append
+        void clearFrom(int index) {
+            byte[] zeros = new byte[RECORD_SIZE];
+            for (int i = index; i < capacity && buffer.getInt(i * RECORD_SIZE) != 0; i++) {
+                buffer.put(i * RECORD_SIZE, zeros);
+            }
+            force();
+        }
+        
+        void force() {
+            buffer.force();
+        }
+        
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not close journal segment " + path.getFileName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Transaction Mempool
+// Transfers submitted here are acknowledged as PENDING at once and wait in a priority
+// queue. The protocol gas fee is a fixed share of the amount, so ordering by it would
+// really order by transfer size and let large transfers starve small ones. Instead the
+// key is arrival time less a head start bought with the request's priorityFee, valued
+// at the current price and capped at max-head-start-ms: bids reorder transfers within
+// that window, but nothing waits behind later arrivals for longer. Dedicated workers
+// drain up to batch-size at a time into WalletService.processTransfers, so a burst
+// queues up instead of holding request threads. Pending transfers live in memory only; one
+// reaches the journal when its batch confirms, and shutdown drains the queue first.
+@Service
+public class TransactionMempool {
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Value("${defiverse.mempool.capacity:100000}")
+    private int capacity;
+    
+    @Value("${defiverse.mempool.workers:2}")
+    private int workerCount;
+    
+    @Value("${defiverse.mempool.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${defiverse.mempool.result-ttl-ms:600000}")
+    private long resultTtlMs;
+    
+    @Value("${defiverse.mempool.head-start-ms-per-usd:1000}")
+    private double headStartMsPerUsd;
+    
+    @Value("${defiverse.mempool.max-head-start-ms:30000}")
+    private long maxHeadStartMs;
+    
+    private static final Comparator<PendingTransfer> PRIORITY = Comparator
+            .comparingLong((PendingTransfer pending) -> pending.priorityKey)
+            .thenComparingLong(pending -> pending.arrival);
+    
+    private final PriorityBlockingQueue<PendingTransfer> queue = new PriorityBlockingQueue<>(1024, PRIORITY);
+    private final AtomicInteger depth = new AtomicInteger();
+    private final AtomicLong arrivals = new AtomicLong();
+    // Queued and recently finished transfers by id; finished ones expire in FIFO order
+    private final Map<String, PendingTransfer> tracked = new ConcurrentHashMap<>();
+    private final Queue<PendingTransfer> finished = new ConcurrentLinkedQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean accepting;
+    private LatencyHistogram timeToConfirm;
+    
+    @PostConstruct
+    public void start() {
+        timeToConfirm = metricsService.histogram("mempool.time_to_confirm");
+        metricsService.setGauge("mempool.depth", 0);
+        accepting = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "mempool-worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        // Anything that slipped in after the workers saw an empty queue
+        List<PendingTransfer> rest = new ArrayList<>();
+        while (queue.drainTo(rest, batchSize) > 0) {
+            confirm(rest);
+            rest.clear();
+        }
+    }
+    
+    // Throws RejectedExecutionException when the mempool is full or shutting down
+    public TransactionResult submit(TransferRequest request, String transactionId, long priorityFeeUnits) {
+        if (!accepting) {
+            throw new RejectedExecutionException("Mempool is shutting down");
+        }
+        if (depth.incrementAndGet() > capacity) {
+            depth.decrementAndGet();
+            metricsService.incrementCounter("mempool.rejected");
+            throw new RejectedExecutionException("Mempool is full");
+        }
+        long submittedAt = System.nanoTime();
+        PendingTransfer pending = new PendingTransfer(transactionId, request,
+                submittedAt - headStartNanos(request.getTokenSymbol(), priorityFeeUnits),
+                arrivals.incrementAndGet(), submittedAt);
+        tracked.put(transactionId, pending);
+        queue.add(pending);
+        metricsService.incrementCounter("mempool.accepted");
+        metricsService.setGauge("mempool.depth", depth.get());
+        return new TransactionResult(transactionId, TransactionStatus.PENDING, "Transfer queued");
+    }
+    
+    // Null once the transfer has expired from the mempool or was never submitted here
+    public TransactionResult status(String transactionId) {
+        PendingTransfer pending = tracked.get(transactionId);
+        if (pending == null) {
+            return null;
+        }
+        TransactionResult result = pending.result;
+        return result != null ? result : new TransactionResult(transactionId, TransactionStatus.PENDING, "Transfer queued");
+    }
+    
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("depth", depth.get());
+        stats.put("capacity", capacity);
+        stats.put("confirmed", timeToConfirm.getCount());
+        stats.put("timeToConfirmP50Nanos", timeToConfirm.valueAtQuantile(0.5));
+        stats.put("timeToConfirmP99Nanos", timeToConfirm.valueAtQuantile(0.99));
+        stats.put("timeToConfirmMaxNanos", timeToConfirm.getMax());
+        return stats;
+    }
+    
+    // The fee's USD value times head-start-ms-per-usd, capped at max-head-start-ms
+    long headStartNanos(String tokenSymbol, long priorityFeeUnits) {
+        if (priorityFeeUnits <= 0) {
+            return 0;
+        }
+        PriceSnapshot prices = priceBook.snapshot();
+        int index = prices.indexOf(tokenSymbol);
+        if (index < 0) {
+            return 0;
+        }
+        double usd = (double) priorityFeeUnits / Amounts.ONE * prices.priceUnitsAt(index) / Amounts.ONE;
+        double millis = Math.min(maxHeadStartMs, usd * headStartMsPerUsd);
+        return (long) (millis * 1_000_000);
+    }
+    
+    private void work() {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                confirm(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Mempool batch failed: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    // Batches are drained in priority order, so earlier keys also move funds first
+    private void confirm(List<PendingTransfer> batch) {
+        metricsService.setGauge("mempool.depth", depth.addAndGet(-batch.size()));
+        List<TransferRequest> requests = new ArrayList<>(batch.size());
+        List<String> transactionIds = new ArrayList<>(batch.size());
+        for (PendingTransfer pending : batch) {
+            requests.add(pending.request);
+            transactionIds.add(pending.transactionId);
+        }
+        List<TransactionResult> results;
+        try {
+            results = walletService.processTransfers(requests, transactionIds);
+        } catch (RuntimeException e) {
+            results = Collections.nCopies(batch.size(), new TransactionResult(null, TransactionStatus.FAILED, e.getMessage()));
+        }
+        
+        long now = System.nanoTime();
+        for (int i = 0; i < batch.size(); i++) {
+            PendingTransfer pending = batch.get(i);
+            TransactionResult result = results.get(i);
+            if (result.getStatus() == TransactionStatus.CONFIRMED) {
+                timeToConfirm.record(now - pending.submittedAt);
+                metricsService.incrementCounter("mempool.confirmed");
+            } else {
+                // Keep the id so the client can still look up why it failed
+                result = new TransactionResult(pending.transactionId, result.getStatus(), result.getMessage());
+                metricsService.incrementCounter("mempool.failed");
+            }
+            pending.finishedAt = now;
+            pending.result = result;
+            finished.add(pending);
+        }
+        evictFinished(now);
+    }
+    
+    private void evictFinished(long now) {
+        PendingTransfer oldest;
+        while ((oldest = finished.peek()) != null
+                && (now - oldest.finishedAt >= TimeUnit.MILLISECONDS.toNanos(resultTtlMs)
+                    || tracked.size() > 2 * capacity)) {
+            if (finished.remove(oldest)) {
+                tracked.remove(oldest.transactionId, oldest);
+            }
+        }
+    }
+    
+    private static final class PendingTransfer {
+        final String transactionId;
+        final TransferRequest request;
+        final long priorityKey; // submittedAt less the fee's head start
+        final long arrival;
+        final long submittedAt;
+        volatile long finishedAt;
+        volatile TransactionResult result;
+        
+        PendingTransfer(String transactionId, TransferRequest request, long priorityKey, long arrival, long submittedAt) {
+            this.transactionId = transactionId;
+            this.request = request;
+            this.priorityKey = priorityKey;
+            this.arrival = arrival;
+            this.submittedAt = submittedAt;
+        }
+    }
+}
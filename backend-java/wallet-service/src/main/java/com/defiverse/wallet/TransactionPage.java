@@ -0,0 +1,17 @@
+package com.defiverse.wallet;
+
+import java.util.*;
+
+// One keyset page of transaction history; nextCursor is null on the last page
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final String nextCursor;
+    
+    public TransactionPage(List<Transaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Transaction> getTransactions() { return transactions; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,59 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+public interface TransactionRepository extends JpaRepository<Transaction, String> {
+    List<Transaction> findByFromAddressOrToAddressOrderByCreatedAtDesc(String fromAddress, String toAddress);
+    List<Transaction> findByStatusOrderByCreatedAtDesc(TransactionStatus status);
+    
+    // Keyset pages over (createdAt, id), one per side so each uses its own index
+    List<Transaction> findByFromAddressOrderByCreatedAtDescIdDesc(String fromAddress, Pageable page);
+    List<Transaction> findByToAddressOrderByCreatedAtDescIdDesc(String toAddress, Pageable page);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.fromAddress = :address " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findSentBefore(@Param("address") String address, @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") String id, Pageable page);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.toAddress = :address " +
+           "AND (t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<Transaction> findReceivedBefore(@Param("address") String address, @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") String id, Pageable page);
+    
+    // Point-in-time replay over (after, until], one query per side
+    @Query("SELECT t FROM Transaction t WHERE t.fromAddress = :address " +
+           "AND t.createdAt > :after AND t.createdAt <= :until AND t.status = 'CONFIRMED'")
+    List<Transaction> findSentBetween(@Param("address") String address, @Param("after") LocalDateTime after,
+                                      @Param("until") LocalDateTime until);
+    
+    @Query("SELECT t FROM Transaction t WHERE t.toAddress = :address " +
+           "AND t.createdAt > :after AND t.createdAt <= :until AND t.status = 'CONFIRMED'")
+    List<Transaction> findReceivedBetween(@Param("address") String address, @Param("after") LocalDateTime after,
+                                          @Param("until") LocalDateTime until);
+    
+    // Per wallet and token sums over (after, until] for balance snapshots
+    @Query("SELECT t.fromAddress, t.tokenSymbol, SUM(t.amount) FROM Transaction t " +
+           "WHERE t.createdAt > :after AND t.createdAt <= :until AND t.status = 'CONFIRMED' " +
+           "GROUP BY t.fromAddress, t.tokenSymbol")
+    List<Object[]> sumSentBetween(@Param("after") LocalDateTime after, @Param("until") LocalDateTime until);
+    
+    @Query("SELECT t.toAddress, t.tokenSymbol, SUM(t.amount) FROM Transaction t " +
+           "WHERE t.createdAt > :after AND t.createdAt <= :until AND t.status = 'CONFIRMED' " +
+           "GROUP BY t.toAddress, t.tokenSymbol")
+    List<Object[]> sumReceivedBetween(@Param("after") LocalDateTime after, @Param("until") LocalDateTime until);
+    
+    @Query("SELECT COUNT(t) FROM Transaction t WHERE t.createdAt >= :date AND t.status = 'CONFIRMED'")
+    long countConfirmedTransactionsAfter(LocalDateTime date);
+    
+    List<Transaction> findByBlockNumberOrderByIdAsc(Long blockNumber);
+    List<Transaction> findByBlockNumberIsNullOrderByCreatedAtAscIdAsc();
+}
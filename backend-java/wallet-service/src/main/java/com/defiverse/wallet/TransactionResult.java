@@ -0,0 +1,32 @@
+package com.defiverse.wallet;
+
+import java.time.LocalDateTime;
+
+public class TransactionResult {
+    private String transactionId;
+    private TransactionStatus status;
+    private String message;
+    private LocalDateTime timestamp;
+    // Journal record of the transfer, or 0 if nothing was written; not part of the response
+    private final long journalSeq;
+    
+    public TransactionResult(String transactionId, TransactionStatus status, String message) {
+        this(transactionId, status, message, 0);
+    }
+    
+    TransactionResult(String transactionId, TransactionStatus status, String message, long journalSeq) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.message = message;
+        this.timestamp = LocalDateTime.now();
+        this.journalSeq = journalSeq;
+    }
+    
+    // Getters and setters
+    public String getTransactionId() { return transactionId; }
+    public TransactionStatus getStatus() { return status; }
+    public String getMessage() { return message; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    
+    long journalSeq() { return journalSeq; }
+}
@@ -0,0 +1,5 @@
+package com.defiverse.wallet;
+
+enum TransactionStatus {
+    PENDING, CONFIRMED, FAILED, CANCELLED
+}
@@ -0,0 +1,44 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Transfer Execution
+// Runs transfer work off the common ForkJoinPool. "virtual" gives every transfer
+// its own virtual thread; "bounded" uses a fixed platform pool with a bounded
+// queue that rejects work once saturated (surfaced as HTTP 429).
+@Configuration
+public class TransferExecutionConfig {
+    
+    @Value("${defiverse.wallet.execution-mode:virtual}")
+    private String executionMode;
+    
+    @Value("${defiverse.wallet.executor.pool-size:64}")
+    private int poolSize;
+    
+    @Value("${defiverse.wallet.executor.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService transferExecutor(MetricsService metricsService) {
+        switch (executionMode) {
+            case "virtual":
+                return new InstrumentedExecutor(Executors.newVirtualThreadPerTaskExecutor(), null, metricsService);
+            case "bounded":
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                        poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        runnable -> new Thread(runnable, "transfer-worker"),
+                        new ThreadPoolExecutor.AbortPolicy());
+                return new InstrumentedExecutor(pool, pool.getQueue(), metricsService);
+            default:
+                throw new IllegalStateException("Unknown execution mode: " + executionMode);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.defiverse.wallet;
+
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+// DTOs for API requests/responses
+public class TransferRequest {
+    @NotNull
+    private String fromAddress;
+    
+    @NotNull
+    private String toAddress;
+    
+    @NotNull
+    private BigDecimal amount;
+    
+    @NotNull
+    private String tokenSymbol;
+    
+    private String password;
+    
+    // Optional tip in the transfer's token, on top of the protocol gas fee. Debited from
+    // the sender with the amount and paid to the fee sink; buys a bounded mempool head start.
+    private BigDecimal priorityFee;
+    
+    // Constructors, getters, setters
+    public TransferRequest() {}
+    
+    public String getFromAddress() { return fromAddress; }
+    public void setFromAddress(String fromAddress) { this.fromAddress = fromAddress; }
+    
+    public String getToAddress() { return toAddress; }
+    public void setToAddress(String toAddress) { this.toAddress = toAddress; }
+    
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    
+    public String getTokenSymbol() { return tokenSymbol; }
+    public void setTokenSymbol(String tokenSymbol) { this.tokenSymbol = tokenSymbol; }
+    
+    public BigDecimal getPriorityFee() { return priorityFee; }
+    public void setPriorityFee(BigDecimal priorityFee) { this.priorityFee = priorityFee; }
+    
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+}
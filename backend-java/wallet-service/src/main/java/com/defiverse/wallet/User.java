@@ -0,0 +1,75 @@
+package com.defiverse.wallet;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Email;
+import java.time.LocalDateTime;
+
+// User Entity
+@Entity
+@Table(name = "users")
+@EntityListeners(UserIndexListener.class)
+public class User {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @NotNull
+    @Column(unique = true)
+    private String username;
+    
+    @Email
+    @NotNull
+    @Column(unique = true)
+    private String email;
+    
+    @NotNull
+    private String passwordHash;
+    
+    @NotNull
+    @Column(unique = true)
+    private String walletAddress;
+    
+    @Enumerated(EnumType.STRING)
+    private UserRole role = UserRole.USER;
+    
+    private LocalDateTime createdAt = LocalDateTime.now();
+    private LocalDateTime lastLogin;
+    private boolean isActive = true;
+    
+    // Constructors, getters, setters
+    public User() {}
+    
+    public User(String username, String email, String passwordHash, String walletAddress) {
+        this.username = username;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.walletAddress = walletAddress;
+    }
+    
+    // Getters and setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+    
+    public String getPasswordHash() { return passwordHash; }
+    public void setPasswordHash(String passwordHash) { this.passwordHash = passwordHash; }
+    
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    
+    public UserRole getRole() { return role; }
+    public void setRole(UserRole role) { this.role = role; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getLastLogin() { return lastLogin; }
+    public void setLastLogin(LocalDateTime lastLogin) { this.lastLogin = lastLogin; }
+    
+    public boolean isActive() { return isActive; }
+    public void setActive(boolean active) { isActive = active; }
+}
@@ -0,0 +1,120 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// User Index
+// In-process lookup of users by wallet address, username and email, loaded at startup
+// and kept current by UserIndexListener after each committed write. Addresses are
+// interned so the maps and entries share one compact (Latin-1) string per wallet.
+// A Bloom filter over known addresses answers most unknown-address checks without
+// touching the maps or the database; only its false positives fall back to a query.
+@Service
+public class UserIndex {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.users.bloom-expected-addresses:1000000}")
+    private int bloomExpectedAddresses;
+    
+    @Value("${defiverse.users.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+    
+    private final Map<String, String> addresses = new ConcurrentHashMap<>();
+    private final Map<Long, UserRef> byId = new ConcurrentHashMap<>();
+    private final Map<String, UserRef> byAddress = new ConcurrentHashMap<>();
+    private final Map<String, UserRef> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, UserRef> byEmail = new ConcurrentHashMap<>();
+    private volatile AddressBloomFilter knownAddresses;
+    
+    @PostConstruct
+    public void load() {
+        knownAddresses = new AddressBloomFilter(bloomExpectedAddresses, bloomFalsePositiveRate);
+        for (User user : ReadWriteRoutingDataSource.onPrimary(userRepository::findAll)) {
+            put(user);
+        }
+        System.out.println("👥 User index loaded " + byId.size() + " users");
+    }
+    
+    public Optional<UserRef> findByWalletAddress(String walletAddress) {
+        if (!knownAddresses.mightContain(walletAddress)) {
+            metricsService.incrementCounter("user_index.bloom_rejections");
+            return Optional.empty();
+        }
+        UserRef user = byAddress.get(walletAddress);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        metricsService.incrementCounter("user_index.fallbacks");
+        return userRepository.findByWalletAddress(walletAddress).map(this::put);
+    }
+    
+    public Optional<UserRef> findByUsername(String username) {
+        UserRef user = byUsername.get(username);
+        return user != null ? Optional.of(user) : userRepository.findByUsername(username).map(this::put);
+    }
+    
+    public Optional<UserRef> findByEmail(String email) {
+        UserRef user = byEmail.get(email);
+        return user != null ? Optional.of(user) : userRepository.findByEmail(email).map(this::put);
+    }
+    
+    public boolean isKnownAddress(String walletAddress) {
+        return findByWalletAddress(walletAddress).isPresent();
+    }
+    
+    // Called after a user row is committed
+    synchronized UserRef put(User user) {
+        // Most puts rewrite a known user (every login stamps lastLogin); only a new
+        // address grows the Bloom filter
+        boolean newAddress = !byAddress.containsKey(user.getWalletAddress());
+        remove(user.getId());
+        UserRef ref = new UserRef(user.getId(), user.getUsername(), user.getEmail(),
+                intern(user.getWalletAddress()), user.getRole(), user.isActive());
+        byId.put(ref.getId(), ref);
+        byAddress.put(ref.getWalletAddress(), ref);
+        byUsername.put(ref.getUsername(), ref);
+        byEmail.put(ref.getEmail(), ref);
+        if (!newAddress) {
+            return ref;
+        }
+        
+        AddressBloomFilter filter = knownAddresses;
+        if (filter.size() >= bloomExpectedAddresses) {
+            // Past its design capacity the false-positive rate climbs, so rebuild from
+            // the live addresses, which also drops removed ones, with room to double
+            bloomExpectedAddresses = Math.max(bloomExpectedAddresses, 2 * byAddress.size());
+            filter = new AddressBloomFilter(bloomExpectedAddresses, bloomFalsePositiveRate);
+            for (String address : byAddress.keySet()) {
+                filter.add(address);
+            }
+            knownAddresses = filter;
+            return ref;
+        }
+        filter.add(ref.getWalletAddress());
+        return ref;
+    }
+    
+    // Removed addresses stay in the Bloom filter; lookups for them fall through to the maps
+    synchronized void remove(Long userId) {
+        UserRef previous = byId.remove(userId);
+        if (previous != null) {
+            byAddress.remove(previous.getWalletAddress(), previous);
+            byUsername.remove(previous.getUsername(), previous);
+            byEmail.remove(previous.getEmail(), previous);
+            addresses.remove(previous.getWalletAddress());
+        }
+    }
+    
+    private String intern(String walletAddress) {
+        return addresses.computeIfAbsent(walletAddress, address -> address);
+    }
+}
@@ -0,0 +1,42 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.persistence.*;
+
+// Keeps the UserIndex current on user writes. Changes are applied after the surrounding
+// transaction commits, so a rolled-back write never becomes visible in the index.
+@Component
+public class UserIndexListener {
+    
+    @Autowired
+    @Lazy
+    private UserIndex userIndex;
+    
+    @PostPersist
+    @PostUpdate
+    public void onSaved(User user) {
+        afterCommit(() -> userIndex.put(user));
+    }
+    
+    @PostRemove
+    public void onRemoved(User user) {
+        afterCommit(() -> userIndex.remove(user.getId()));
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.defiverse.wallet;
+
+// Immutable view of a user held by the UserIndex
+public final class UserRef {
+    private final Long id;
+    private final String username;
+    private final String email;
+    private final String walletAddress;
+    private final UserRole role;
+    private final boolean active;
+    
+    public UserRef(Long id, String username, String email, String walletAddress, UserRole role, boolean active) {
+        this.id = id;
+        this.username = username;
+        this.email = email;
+        this.walletAddress = walletAddress;
+        this.role = role;
+        this.active = active;
+    }
+    
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getEmail() { return email; }
+    public String getWalletAddress() { return walletAddress; }
+    public UserRole getRole() { return role; }
+    public boolean isActive() { return active; }
+}
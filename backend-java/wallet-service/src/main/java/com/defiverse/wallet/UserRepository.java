@@ -0,0 +1,18 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Repository Interfaces
+@Repository
+public interface UserRepository extends JpaRepository<User, Long> {
+    Optional<User> findByUsername(String username);
+    Optional<User> findByEmail(String email);
+    Optional<User> findByWalletAddress(String walletAddress);
+    
+    @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :date")
+    long countUsersCreatedAfter(LocalDateTime date);
+}
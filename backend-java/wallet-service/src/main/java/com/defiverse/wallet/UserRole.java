@@ -0,0 +1,5 @@
+package com.defiverse.wallet;
+
+enum UserRole {
+    USER, ADMIN, MODERATOR
+}
@@ -0,0 +1,39 @@
+package com.defiverse.wallet;
+
+import java.math.BigDecimal;
+
+// Running sum of fixed-point amounts that spills into BigDecimal only when the
+// long would overflow. Not thread-safe; parallel callers keep one each and merge.
+public final class ValueTotal {
+    private long units;
+    private BigDecimal overflow = BigDecimal.ZERO;
+    
+    public void add(long amountUnits) {
+        if (units > Long.MAX_VALUE - amountUnits) {
+            overflow = overflow.add(Amounts.toDecimal(units));
+            units = 0;
+        }
+        units += amountUnits;
+    }
+    
+    public void add(BigDecimal amount) {
+        overflow = overflow.add(amount);
+    }
+    
+    public void add(ValueTotal other) {
+        add(other.units);
+        overflow = overflow.add(other.overflow);
+    }
+    
+    public static ValueTotal[] newArray(int length) {
+        ValueTotal[] totals = new ValueTotal[length];
+        for (int i = 0; i < length; i++) {
+            totals[i] = new ValueTotal();
+        }
+        return totals;
+    }
+    
+    public BigDecimal toDecimal() {
+        return overflow.signum() == 0 ? Amounts.toDecimal(units) : overflow.add(Amounts.toDecimal(units));
+    }
+}
@@ -0,0 +1,62 @@
+package com.defiverse.wallet;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.math.BigDecimal;
+
+// Wallet Balance Entity
+@Entity
+@Table(name = "wallet_balances",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"walletAddress", "tokenSymbol"}))
+public class WalletBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Version
+    private Long version;
+    
+    @NotNull
+    private String walletAddress;
+    
+    @NotNull
+    private String tokenSymbol;
+    
+    @NotNull
+    @Column(precision = 36, scale = 18)
+    private BigDecimal balance;
+    
+    private LocalDateTime lastUpdated = LocalDateTime.now();
+    
+    // Constructors, getters, setters
+    public WalletBalance() {}
+    
+    public WalletBalance(String walletAddress, String tokenSymbol, BigDecimal balance) {
+        this.walletAddress = walletAddress;
+        this.tokenSymbol = tokenSymbol;
+        this.balance = balance;
+    }
+    
+    public WalletBalance(String walletAddress, String tokenSymbol, BigDecimal balance, LocalDateTime lastUpdated) {
+        this(walletAddress, tokenSymbol, balance);
+        this.lastUpdated = lastUpdated;
+    }
+    
+    public Long getId() { return id; }
+    public Long getVersion() { return version; }
+    
+    public String getWalletAddress() { return walletAddress; }
+    public void setWalletAddress(String walletAddress) { this.walletAddress = walletAddress; }
+    
+    public String getTokenSymbol() { return tokenSymbol; }
+    public void setTokenSymbol(String tokenSymbol) { this.tokenSymbol = tokenSymbol; }
+    
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { 
+        this.balance = balance;
+        this.lastUpdated = LocalDateTime.now();
+    }
+    
+    public LocalDateTime getLastUpdated() { return lastUpdated; }
+}
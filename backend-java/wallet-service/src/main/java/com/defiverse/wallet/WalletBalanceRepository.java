@@ -0,0 +1,16 @@
+package com.defiverse.wallet;
+
+import org.springframework.stereotype.Repository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import java.util.*;
+import java.math.BigDecimal;
+
+@Repository
+public interface WalletBalanceRepository extends JpaRepository<WalletBalance, Long> {
+    List<WalletBalance> findByWalletAddress(String walletAddress);
+    Optional<WalletBalance> findByWalletAddressAndTokenSymbol(String walletAddress, String tokenSymbol);
+    
+    @Query("SELECT SUM(wb.balance) FROM WalletBalance wb WHERE wb.tokenSymbol = :tokenSymbol")
+    BigDecimal getTotalSupplyByToken(String tokenSymbol);
+}
@@ -0,0 +1,316 @@
+package com.defiverse.wallet;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+// REST Controller
+@RestController
+@RequestMapping("/api/v1/wallet")
+@CrossOrigin(origins = "*")
+public class WalletController {
+    
+    private static final int EXPORT_PAGE_SIZE = 500;
+    // How far behind confirmed transfers the projected rows in the response may be
+    private static final String READ_LAG_HEADER = "X-Read-Lag-Ms";
+    
+    @Autowired
+    private WalletService walletService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private SessionTokens sessionTokens;
+    
+    @GetMapping("/balance/{address}")
+    public ResponseEntity<Map<String, Object>> getWalletSummary(@PathVariable String address) {
+        try {
+            Map<String, Object> summary = walletService.getWalletSummary(address);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/transfer")
+    public CompletableFuture<ResponseEntity<TransactionResult>> transfer(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody TransferRequest request) {
+        ResponseEntity<TransactionResult> denied = authorize(authorization, List.of(request));
+        if (denied != null) {
+            return CompletableFuture.completedFuture(denied);
+        }
+        CompletableFuture<TransactionResult> pending;
+        try {
+            pending = walletService.processTransfer(request, idempotencyKey);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new TransactionResult(null, TransactionStatus.FAILED, e.getMessage())));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new TransactionResult(null, TransactionStatus.FAILED, "Transfer queue is full, retry later")));
+        }
+        return pending
+                .thenApply(result -> {
+                    if (result.getStatus() == TransactionStatus.CONFIRMED) {
+                        return ResponseEntity.ok(result);
+                    } else {
+                        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(result);
+                    }
+                });
+    }
+    
+    @PostMapping("/transfers/batch")
+    public ResponseEntity<List<TransactionResult>> transferBatch(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody List<TransferRequest> requests) {
+        ResponseEntity<TransactionResult> denied = authorize(authorization, requests);
+        if (denied != null) {
+            return ResponseEntity.status(denied.getStatusCode()).body(List.of(denied.getBody()));
+        }
+        try {
+            return ResponseEntity.ok(walletService.processTransfers(requests));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(List.of(new TransactionResult(null, TransactionStatus.FAILED, e.getMessage())));
+        }
+    }
+    
+    // Accepts the transfer into the mempool and answers 202 with its PENDING id
+    @PostMapping("/transfers/pending")
+    public ResponseEntity<TransactionResult> queueTransfer(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody TransferRequest request) {
+        ResponseEntity<TransactionResult> denied = authorize(authorization, List.of(request));
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(walletService.queueTransfer(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(new TransactionResult(null, TransactionStatus.FAILED, e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(new TransactionResult(null, TransactionStatus.FAILED, e.getMessage() + ", retry later"));
+        }
+    }
+    
+    @GetMapping("/transfers/{transactionId}")
+    public ResponseEntity<TransactionResult> getTransferStatus(@PathVariable String transactionId) {
+        return walletService.getTransferStatus(transactionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+    
+    @GetMapping("/mempool")
+    public ResponseEntity<Map<String, Object>> getMempoolStats() {
+        return ResponseEntity.ok(walletService.getMempoolStats());
+    }
+    
+    // Balances and value at a past instant, e.g. ?at=2026-01-31T23:59:59
+    @GetMapping("/history/{address}")
+    public ResponseEntity<Map<String, Object>> getBalancesAt(
+            @PathVariable String address,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+            @RequestParam(required = false) Long maxLagMs) {
+        try {
+            long lag = walletService.awaitReadFreshness(maxLagMs);
+            return ResponseEntity.ok()
+                    .header(READ_LAG_HEADER, Long.toString(lag))
+                    .body(walletService.getBalancesAt(address, at));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/transactions/{address}")
+    public ResponseEntity<List<Transaction>> getTransactionHistory(
+            @PathVariable String address,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Long maxLagMs) {
+        try {
+            long lag = walletService.awaitReadFreshness(maxLagMs);
+            TransactionPage page = walletService.getTransactionHistory(address, limit, cursor);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().header(READ_LAG_HEADER, Long.toString(lag));
+            if (page.getNextCursor() != null) {
+                response.header("X-Next-Cursor", page.getNextCursor());
+            }
+            return response.body(page.getTransactions());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+    
+    // Full history as newline-delimited JSON, written page by page as rows are fetched
+    @GetMapping(value = "/transactions/{address}/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(
+            @PathVariable String address,
+            @RequestParam(required = false) Long maxLagMs) {
+        long lag;
+        try {
+            lag = walletService.awaitReadFreshness(maxLagMs);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        StreamingResponseBody body = out -> {
+            String cursor = null;
+            do {
+                TransactionPage page = walletService.getTransactionHistory(address, EXPORT_PAGE_SIZE, cursor);
+                for (Transaction transaction : page.getTransactions()) {
+                    out.write(objectMapper.writeValueAsBytes(transaction));
+                    out.write('\n');
+                }
+                out.flush();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+        };
+        return ResponseEntity.ok()
+                .header(READ_LAG_HEADER, Long.toString(lag))
+                // Encoded by ContentDisposition, since the address is caller-supplied
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(address + "-transactions.ndjson", StandardCharsets.UTF_8).build().toString())
+                .body(body);
+    }
+    
+    // Values many wallets against one price snapshot, streamed as newline-delimited JSON:
+    // a compact line per wallet in request order, then one line of portfolio totals
+    @PostMapping(value = "/summaries", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getWalletSummaries(@RequestBody List<String> addresses) {
+        PortfolioValuation valuation;
+        try {
+            valuation = walletService.valueWallets(addresses);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        StreamingResponseBody body = out -> {
+            JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+            json.setRootValueSeparator(null);
+            for (int chunk = 0; chunk < valuation.getChunkCount(); chunk++) {
+                for (PortfolioValuation.WalletValue wallet : valuation.chunk(chunk)) {
+                    json.writeStartObject();
+                    json.writeStringField("walletAddress", wallet.getWalletAddress());
+                    json.writeFieldName("totalValue");
+                    json.writeNumber(wallet.getTotalValue());
+                    json.writeObjectFieldStart("balances");
+                    for (TokenBalance balance : wallet.getBalances()) {
+                        json.writeFieldName(balance.getTokenSymbol());
+                        json.writeNumber(Amounts.toDecimal(balance.getUnits()));
+                    }
+                    json.writeEndObject();
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+                json.flush();
+            }
+            json.writeObject(Map.of("totals", valuation.totals()));
+            json.writeRaw('\n');
+            json.close();
+        };
+        return ResponseEntity.ok(body);
+    }
+    
+    // Transfers must carry a session token for the wallet they spend from; returns
+    // the error response, or null when every request is authorized
+    private ResponseEntity<TransactionResult> authorize(String authorization, List<TransferRequest> requests) {
+        SessionTokens.Session session = sessionTokens.verifyBearer(authorization);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(new TransactionResult(null, TransactionStatus.FAILED, "Missing or expired session token"));
+        }
+        for (TransferRequest request : requests) {
+            if (!session.getWalletAddress().equals(request.getFromAddress())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(new TransactionResult(null, TransactionStatus.FAILED, "Session does not own " + request.getFromAddress()));
+            }
+        }
+        return null;
+    }
+    
+    // Server-sent events for one wallet: "balance" on each change, coalesced per token,
+    // and "transaction" for every confirmed transfer in or out
+    @GetMapping(value = "/stream/{address}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamWalletEvents(@PathVariable String address) {
+        try {
+            return ResponseEntity.ok(walletService.streamWalletEvents(address));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+    
+    @GetMapping("/tokens/{symbol}")
+    public ResponseEntity<Map<String, Object>> getTokenStats(@PathVariable String symbol,
+                                                             @RequestParam(defaultValue = "10") int top) {
+        try {
+            return ResponseEntity.ok(walletService.getTokenStats(symbol, top));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/blocks/{number}")
+    public ResponseEntity<Map<String, Object>> getBlock(@PathVariable long number) {
+        return walletService.getBlock(number)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Block not found")));
+    }
+    
+    @GetMapping("/blocks/{number}/proof/{transactionId}")
+    public ResponseEntity<Map<String, Object>> getInclusionProof(@PathVariable long number,
+                                                                 @PathVariable String transactionId) {
+        return walletService.getInclusionProof(number, transactionId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Transaction not found in block")));
+    }
+    
+    @GetMapping("/prices")
+    public ResponseEntity<Map<String, Object>> getPrices() {
+        PriceSnapshot snapshot = walletService.getPriceSnapshot();
+        Map<String, Object> prices = new LinkedHashMap<>();
+        for (int i = 0; i < snapshot.size(); i++) {
+            prices.put(snapshot.symbolAt(i), BigDecimal.valueOf(snapshot.priceUnitsAt(i), PriceBook.PRICE_SCALE));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("version", snapshot.getVersion());
+        response.put("prices", prices);
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/health")
+    public ResponseEntity<Map<String, Object>> healthCheck() {
+        Map<String, Object> health = new HashMap<>();
+        health.put("status", "UP");
+        health.put("timestamp", LocalDateTime.now());
+        health.put("service", "DeFiVerse Wallet Service");
+        health.put("version", "2.0.0");
+        return ResponseEntity.ok(health);
+    }
+}
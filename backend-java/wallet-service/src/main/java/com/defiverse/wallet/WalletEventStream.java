@@ -0,0 +1,355 @@
+package com.defiverse.wallet;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Wallet Event Stream
+// Pushes balance changes and confirmed transactions to server-sent event subscribers,
+// so clients stop polling. Producers only touch an in-memory subscriber: balance
+// changes coalesce to the latest value per token, and transactions go into a bounded
+// ring buffer. Price ticks only record the latest snapshot; each flush hands it to
+// every subscriber, which sends the tokens repriced since its last price event. A
+// dispatcher sends the backlog every flush interval on virtual threads, one send in
+// flight per subscriber. A subscriber whose ring overflows is dropped.
+@Service
+public class WalletEventStream implements BalanceListener, PriceListener {
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.stream.buffer-size:256}")
+    private int bufferSize;
+    
+    @Value("${defiverse.stream.max-subscribers:10000}")
+    private int maxSubscribers;
+    
+    @Value("${defiverse.stream.flush-interval-ms:100}")
+    private long flushIntervalMs;
+    
+    @Value("${defiverse.stream.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+    
+    @Value("${defiverse.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+    
+    private final Map<String, List<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Subscriber> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicReference<PriceSnapshot> repriced = new AtomicReference<>();
+    private ScheduledExecutorService dispatcher;
+    private ExecutorService senders;
+    
+    @PostConstruct
+    public void start() {
+        balanceLedger.addListener(this);
+        priceBook.subscribe(this);
+        senders = Executors.newVirtualThreadPerTaskExecutor();
+        dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wallet-event-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        dispatcher.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        dispatcher.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(list -> list.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+    
+    // Throws IllegalStateException when the subscriber limit is reached
+    public SseEmitter subscribe(String walletAddress) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new IllegalStateException("Too many stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(walletAddress, new SseEmitter(timeoutMs), bufferSize);
+        subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+        subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+        subscriber.emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.computeIfAbsent(walletAddress, address -> new CopyOnWriteArrayList<>()).add(subscriber);
+        metricsService.setGauge("stream.subscribers", subscriberCount.get());
+        // Current prices and balances go out first so clients need no initial poll; the
+        // comment commits the response headers even for a wallet with nothing to send
+        if (subscriber.offerPrices(priceBook.snapshot())) {
+            dirty.add(subscriber);
+        }
+        for (TokenBalance balance : balanceLedger.getBalances(walletAddress)) {
+            if (subscriber.seedBalance(balance)) {
+                dirty.add(subscriber);
+            }
+        }
+        try {
+            subscriber.emitter.send(SseEmitter.event().comment("subscribed"));
+        } catch (IOException e) {
+            subscriber.emitter.completeWithError(e);
+        }
+        return subscriber.emitter;
+    }
+    
+    // Runs under the ledger stripe, so it only records the new value
+    @Override
+    public void onBalanceChanged(String walletAddress, String tokenSymbol, long oldUnits, long newUnits) {
+        List<Subscriber> listeners = subscribers.get(walletAddress);
+        if (listeners == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : listeners) {
+            if (subscriber.offerBalance(tokenSymbol, newUnits, now)) {
+                dirty.add(subscriber);
+            }
+        }
+    }
+    
+    // Runs on the feed thread for every tick, so it only keeps the newest snapshot
+    @Override
+    public void onPrices(PriceSnapshot snapshot, long changedMask) {
+        repriced.set(snapshot);
+    }
+    
+    public void publishConfirmed(Transaction transaction) {
+        publish(transaction.getFromAddress(), transaction);
+        publish(transaction.getToAddress(), transaction);
+    }
+    
+    private void publish(String walletAddress, Transaction transaction) {
+        List<Subscriber> listeners = subscribers.get(walletAddress);
+        if (listeners == null) {
+            return;
+        }
+        for (Subscriber subscriber : listeners) {
+            if (subscriber.offerTransaction(transaction)) {
+                dirty.add(subscriber);
+            }
+        }
+    }
+    
+    private void dispatch() {
+        PriceSnapshot prices = repriced.getAndSet(null);
+        if (prices != null) {
+            for (List<Subscriber> listeners : subscribers.values()) {
+                for (Subscriber subscriber : listeners) {
+                    if (subscriber.offerPrices(prices)) {
+                        dirty.add(subscriber);
+                    }
+                }
+            }
+        }
+        List<Subscriber> busy = new ArrayList<>();
+        Subscriber subscriber;
+        while ((subscriber = dirty.poll()) != null) {
+            Subscriber target = subscriber;
+            if (target.sending.compareAndSet(false, true)) {
+                senders.execute(() -> send(target));
+            } else {
+                busy.add(target);
+            }
+        }
+        // Still sending the previous backlog; try again next flush
+        dirty.addAll(busy);
+    }
+    
+    private void send(Subscriber subscriber) {
+        try {
+            Subscriber.Backlog backlog = subscriber.drain();
+            if (backlog.overflowed) {
+                metricsService.incrementCounter("stream.dropped_subscribers");
+                subscriber.emitter.send(SseEmitter.event().name("dropped").data("Subscriber fell behind"));
+                subscriber.emitter.complete();
+                return;
+            }
+            if (backlog.prices != null) {
+                Map<String, BigDecimal> changed = new LinkedHashMap<>();
+                for (int i = 0; i < backlog.prices.size(); i++) {
+                    if (backlog.prices.tokenVersionAt(i) > backlog.pricesSince) {
+                        changed.put(backlog.prices.symbolAt(i),
+                                BigDecimal.valueOf(backlog.prices.priceUnitsAt(i), PriceBook.PRICE_SCALE));
+                    }
+                }
+                subscriber.emitter.send(SseEmitter.event().name("prices").data(Map.of(
+                        "version", backlog.prices.getVersion(),
+                        "prices", changed)));
+            }
+            for (TokenBalance balance : backlog.balances) {
+                subscriber.emitter.send(SseEmitter.event().name("balance").data(Map.of(
+                        "walletAddress", subscriber.walletAddress,
+                        "tokenSymbol", balance.getTokenSymbol(),
+                        "balance", Amounts.toDecimal(balance.getUnits()),
+                        "lastUpdated", balance.getLastUpdated())));
+            }
+            for (Transaction transaction : backlog.transactions) {
+                subscriber.emitter.send(SseEmitter.event().name("transaction").id(transaction.getId()).data(transaction));
+            }
+            metricsService.incrementCounter("stream.events_sent",
+                    (backlog.prices != null ? 1 : 0) + backlog.balances.size() + backlog.transactions.size());
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+            unsubscribe(subscriber);
+            return;
+        } finally {
+            subscriber.sending.set(false);
+        }
+        // Anything that arrived while sending goes out with the next dispatch
+        if (subscriber.hasBacklog()) {
+            dirty.add(subscriber);
+        }
+    }
+    
+    private void heartbeat() {
+        for (List<Subscriber> listeners : subscribers.values()) {
+            for (Subscriber subscriber : listeners) {
+                if (subscriber.sending.compareAndSet(false, true)) {
+                    senders.execute(() -> {
+                        try {
+                            subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                        } catch (IOException | IllegalStateException e) {
+                            subscriber.emitter.completeWithError(e);
+                            unsubscribe(subscriber);
+                        } finally {
+                            subscriber.sending.set(false);
+                        }
+                    });
+                }
+            }
+        }
+    }
+    
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.walletAddress, (address, listeners) -> {
+            listeners.remove(subscriber);
+            return listeners.isEmpty() ? null : listeners;
+        });
+        metricsService.setGauge("stream.subscribers", subscriberCount.decrementAndGet());
+    }
+    
+    private static final class Subscriber {
+        final String walletAddress;
+        final SseEmitter emitter;
+        final AtomicBoolean sending = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        
+        // Guarded by this
+        private final Map<String, TokenBalance> balances = new LinkedHashMap<>();
+        private final Transaction[] ring;
+        private PriceSnapshot prices;
+        // Version of the last snapshot sent; -1 sends every price on the first event
+        private long pricesSentVersion = -1;
+        private int head;
+        private int count;
+        private boolean overflowed;
+        private boolean queued;
+        
+        Subscriber(String walletAddress, SseEmitter emitter, int bufferSize) {
+            this.walletAddress = walletAddress;
+            this.emitter = emitter;
+            this.ring = new Transaction[bufferSize];
+        }
+        
+        // Each offer returns true when the subscriber needs to join the dirty queue
+        synchronized boolean offerBalance(String tokenSymbol, long units, long updatedMillis) {
+            balances.put(tokenSymbol, new TokenBalance(tokenSymbol, units, updatedMillis));
+            return markQueued();
+        }
+        
+        // A delta recorded after registration is newer than the snapshot value
+        synchronized boolean seedBalance(TokenBalance balance) {
+            balances.putIfAbsent(balance.getTokenSymbol(), balance);
+            return markQueued();
+        }
+        
+        synchronized boolean offerPrices(PriceSnapshot snapshot) {
+            if (snapshot.getVersion() <= pricesSentVersion
+                    || prices != null && snapshot.getVersion() <= prices.getVersion()) {
+                return false;
+            }
+            prices = snapshot;
+            return markQueued();
+        }
+        
+        synchronized boolean offerTransaction(Transaction transaction) {
+            if (count == ring.length) {
+                overflowed = true;
+            } else {
+                ring[(head + count++) % ring.length] = transaction;
+            }
+            return markQueued();
+        }
+        
+        synchronized Backlog drain() {
+            queued = false;
+            Backlog backlog = new Backlog(prices, pricesSentVersion, new ArrayList<>(balances.values()),
+                    new ArrayList<>(count), overflowed);
+            if (prices != null) {
+                pricesSentVersion = prices.getVersion();
+                prices = null;
+            }
+            balances.clear();
+            for (; count > 0; count--) {
+                backlog.transactions.add(ring[head]);
+                ring[head] = null;
+                head = (head + 1) % ring.length;
+            }
+            return backlog;
+        }
+        
+        // True when more arrived during a send and nobody has queued the subscriber yet
+        synchronized boolean hasBacklog() {
+            return (prices != null || !balances.isEmpty() || count > 0 || overflowed) && markQueued();
+        }
+        
+        private boolean markQueued() {
+            if (queued || closed.get()) {
+                return false;
+            }
+            queued = true;
+            return true;
+        }
+        
+        static final class Backlog {
+            final PriceSnapshot prices;
+            final long pricesSince;
+            final List<TokenBalance> balances;
+            final List<Transaction> transactions;
+            final boolean overflowed;
+            
+            Backlog(PriceSnapshot prices, long pricesSince, List<TokenBalance> balances,
+                    List<Transaction> transactions, boolean overflowed) {
+                this.prices = prices;
+                this.pricesSince = pricesSince;
+                this.balances = balances;
+                this.transactions = transactions;
+                this.overflowed = overflowed;
+            }
+        }
+    }
+}
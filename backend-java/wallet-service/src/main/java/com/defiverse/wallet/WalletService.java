@@ -0,0 +1,590 @@
+package com.defiverse.wallet;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+// Service Layer
+// Read-only by default so database reads go to the replica; methods that write say so
+@Service
+@Transactional(readOnly = true)
+public class WalletService {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private ExecutorService transferExecutor;
+    
+    @Autowired
+    private WalletSummaryCache summaryCache;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Autowired
+    private TransactionJournal journal;
+    
+    @Autowired
+    private BlockRepository blockRepository;
+    
+    @Autowired
+    private TokenAggregates tokenAggregates;
+    
+    @Autowired
+    private SessionTokens sessionTokens;
+    
+    @Autowired
+    private UserIndex userIndex;
+    
+    @Autowired
+    private WalletEventStream eventStream;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private BalanceHistory balanceHistory;
+    
+    @Autowired
+    private ReadFreshness readFreshness;
+    
+    // Lazy so the mempool, whose workers call back in here, is shut down first
+    @Autowired
+    @Lazy
+    private TransactionMempool mempool;
+    
+    @Value("${defiverse.wallet.max-batch-size:10000}")
+    private int maxBatchSize;
+    
+    @Value("${defiverse.wallet.max-summary-wallets:100000}")
+    private int maxSummaryWallets;
+    
+    @Value("${defiverse.users.require-known-recipient:true}")
+    private boolean requireKnownRecipient;
+    
+    // Collects priority fees; they leave the sender as their own journaled transfer
+    @Value("${defiverse.fees.sink-address:0x0000000000000000000000000000000000000fee}")
+    private String feeSinkAddress;
+    
+    private LatencyHistogram validationLatency;
+    private LatencyHistogram balanceReadLatency;
+    private LatencyHistogram balanceWriteLatency;
+    private LatencyHistogram commitLatency;
+    
+    private static final int MAX_HISTORY_PAGE = 1000;
+    private static final int MAX_TOP_HOLDERS = 1000;
+    private static final Comparator<Transaction> HISTORY_ORDER = Comparator
+            .comparing(Transaction::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(Transaction::getId, Comparator.reverseOrder());
+    
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    // Compared against for unknown usernames, so they cost the same as a wrong password
+    private final String unknownUserHash = passwordEncoder.encode(UUID.randomUUID().toString());
+    
+    @PostConstruct
+    public void registerMetrics() {
+        validationLatency = metricsService.histogram("transfer.validate");
+        balanceReadLatency = metricsService.histogram("balance.read");
+        balanceWriteLatency = metricsService.histogram("balance.write");
+        commitLatency = metricsService.histogram("transfer.commit");
+    }
+    
+    // The only place BCrypt runs: a successful login trades the password for a
+    // session token that transfers present instead
+    @Transactional
+    public Optional<LoginResult> login(String username, String password) {
+        Optional<User> user = userRepository.findByUsername(username);
+        String hash = user.map(User::getPasswordHash).orElse(unknownUserHash);
+        if (!passwordEncoder.matches(password, hash) || user.isEmpty() || !user.get().isActive()) {
+            metricsService.incrementCounter("auth.login_failed");
+            return Optional.empty();
+        }
+        user.get().setLastLogin(LocalDateTime.now());
+        userRepository.save(user.get());
+        return Optional.of(sessionTokens.issue(user.get()));
+    }
+    
+    public List<WalletBalance> getWalletBalances(String walletAddress) {
+        List<TokenBalance> balances = readBalances(walletAddress);
+        List<WalletBalance> rows = new ArrayList<>(balances.size());
+        for (TokenBalance balance : balances) {
+            rows.add(new WalletBalance(walletAddress, balance.getTokenSymbol(),
+                    Amounts.toDecimal(balance.getUnits()), balance.getLastUpdated()));
+        }
+        return rows;
+    }
+    
+    public BigDecimal getTokenBalance(String walletAddress, String tokenSymbol) {
+        long startedAt = System.nanoTime();
+        long units = balanceLedger.getBalanceUnits(walletAddress, tokenSymbol);
+        balanceReadLatency.record(System.nanoTime() - startedAt);
+        return Amounts.toDecimal(units);
+    }
+    
+    private List<TokenBalance> readBalances(String walletAddress) {
+        long startedAt = System.nanoTime();
+        List<TokenBalance> balances = balanceLedger.getBalances(walletAddress);
+        balanceReadLatency.record(System.nanoTime() - startedAt);
+        return balances;
+    }
+    
+    // Throws RejectedExecutionException when the bounded transfer executor is saturated
+    public CompletableFuture<TransactionResult> processTransfer(TransferRequest request) {
+        return submitTransfer(request, UUID.randomUUID().toString());
+    }
+    
+    // A repeated key returns the first submission's result without touching balances
+    public CompletableFuture<TransactionResult> processTransfer(TransferRequest request, String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return processTransfer(request);
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > IdempotencyCache.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to "
+                    + IdempotencyCache.MAX_KEY_LENGTH + " characters");
+        }
+        return idempotencyCache.submit(request, idempotencyKey, transactionId -> submitTransfer(request, transactionId));
+    }
+    
+    private CompletableFuture<TransactionResult> submitTransfer(TransferRequest request, String transactionId) {
+        return CompletableFuture.supplyAsync(() -> {
+            long[] seq = new long[1];
+            try {
+                // Validate request
+                long startedAt = System.nanoTime();
+                long amountUnits = validateTransferRequest(request);
+                long validatedAt = System.nanoTime();
+                validationLatency.record(validatedAt - startedAt);
+                
+                // Journal the transfer under the ledger stripes that order it, then move
+                // funds; a failed write leaves balances untouched
+                Transaction transaction = confirmedTransaction(transactionId, request, amountUnits);
+                long feeUnits = priorityFeeUnits(request);
+                List<Transaction> records = journalRecords(transaction, feeUnits);
+                boolean moved = balanceLedger.transfer(request.getFromAddress(), request.getToAddress(),
+                        request.getTokenSymbol(), amountUnits, feeUnits, feeSinkAddress,
+                        () -> seq[0] = journal.write(records));
+                long movedAt = System.nanoTime();
+                balanceWriteLatency.record(movedAt - validatedAt);
+                if (!moved) {
+                    metricsService.incrementCounter("transfers.insufficient_balance");
+                    return new TransactionResult(null, TransactionStatus.FAILED, "Insufficient balance");
+                }
+                
+                // Acknowledged once durable, which covers every transfer it was ordered after
+                journal.awaitDurable(seq[0]);
+                commitLatency.record(System.nanoTime() - movedAt);
+                metricsService.incrementCounter("transfers.confirmed");
+                eventStream.publishConfirmed(transaction);
+                
+                System.out.println("✅ Transfer completed: " + transactionId);
+                return new TransactionResult(transactionId, TransactionStatus.CONFIRMED, "Transfer successful", seq[0]);
+                
+            } catch (Exception e) {
+                metricsService.incrementCounter("transfers.failed");
+                System.err.println("❌ Transfer failed: " + e.getMessage());
+                // A written record may still become durable, so the seq goes back with the failure
+                return new TransactionResult(null, TransactionStatus.FAILED, e.getMessage(), seq[0]);
+            }
+        }, transferExecutor);
+    }
+    
+    // Validates now and confirms later in a mempool batch; the id is returned as PENDING.
+    // Throws RejectedExecutionException when the mempool is full.
+    public TransactionResult queueTransfer(TransferRequest request) {
+        validateTransferRequest(request);
+        return mempool.submit(request, UUID.randomUUID().toString(), priorityFeeUnits(request));
+    }
+    
+    // Mempool state while queued or recently finished, otherwise the stored transaction
+    public Optional<TransactionResult> getTransferStatus(String transactionId) {
+        TransactionResult queued = mempool.status(transactionId);
+        if (queued != null) {
+            return Optional.of(queued);
+        }
+        return transactionRepository.findById(transactionId)
+                .map(transaction -> new TransactionResult(transactionId, transaction.getStatus(), "Transfer recorded"));
+    }
+    
+    public Map<String, Object> getMempoolStats() {
+        return mempool.stats();
+    }
+    
+    // Applies a whole batch in the ledger, writing each transfer's journal record
+    // under its stripes, and waits for one fsync covering them all. Results match
+    // request order.
+    public List<TransactionResult> processTransfers(List<TransferRequest> requests) {
+        return processTransfers(requests, null);
+    }
+    
+    // transactionIds, when given, supplies the id for each request
+    public List<TransactionResult> processTransfers(List<TransferRequest> requests, List<String> transactionIds) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch exceeds " + maxBatchSize + " transfers");
+        }
+        
+        // Validate the whole batch before moving any funds
+        TransactionResult[] results = new TransactionResult[requests.size()];
+        long[] amountUnits = new long[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            long startedAt = System.nanoTime();
+            try {
+                amountUnits[i] = validateTransferRequest(requests.get(i));
+            } catch (Exception e) {
+                results[i] = new TransactionResult(null, TransactionStatus.FAILED, e.getMessage());
+                metricsService.incrementCounter("transfers.failed");
+            }
+            validationLatency.record(System.nanoTime() - startedAt);
+        }
+        
+        List<Transaction> confirmed = new ArrayList<>();
+        List<Integer> confirmedIndexes = new ArrayList<>();
+        long[] lastSeq = {-1};
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            TransferRequest request = requests.get(i);
+            String transactionId = transactionIds != null ? transactionIds.get(i) : UUID.randomUUID().toString();
+            Transaction transaction = confirmedTransaction(transactionId, request, amountUnits[i]);
+            long feeUnits = priorityFeeUnits(request);
+            List<Transaction> records = journalRecords(transaction, feeUnits);
+            long startedAt = System.nanoTime();
+            boolean moved;
+            try {
+                moved = balanceLedger.transfer(request.getFromAddress(), request.getToAddress(),
+                        request.getTokenSymbol(), amountUnits[i], feeUnits, feeSinkAddress,
+                        () -> lastSeq[0] = journal.write(records));
+            } catch (RuntimeException e) {
+                // Not written, so nothing moved
+                metricsService.incrementCounter("transfers.failed");
+                results[i] = new TransactionResult(null, TransactionStatus.FAILED, e.getMessage());
+                continue;
+            }
+            balanceWriteLatency.record(System.nanoTime() - startedAt);
+            if (!moved) {
+                metricsService.incrementCounter("transfers.insufficient_balance");
+                results[i] = new TransactionResult(null, TransactionStatus.FAILED, "Insufficient balance");
+                continue;
+            }
+            confirmed.add(transaction);
+            confirmedIndexes.add(i);
+        }
+        
+        long commitStartedAt = System.nanoTime();
+        try {
+            if (lastSeq[0] >= 0) {
+                journal.awaitDurable(lastSeq[0]);
+            }
+            commitLatency.record(System.nanoTime() - commitStartedAt);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Batch commit did not complete for " + confirmed.size() + " transfers: " + e.getMessage());
+            for (int i = 0; i < confirmed.size(); i++) {
+                results[confirmedIndexes.get(i)] = new TransactionResult(null, TransactionStatus.FAILED, e.getMessage());
+            }
+            metricsService.incrementCounter("transfers.failed", confirmed.size());
+            return Arrays.asList(results);
+        }
+        
+        metricsService.incrementCounter("transfers.confirmed", confirmed.size());
+        for (int i = 0; i < confirmed.size(); i++) {
+            eventStream.publishConfirmed(confirmed.get(i));
+            results[confirmedIndexes.get(i)] = new TransactionResult(
+                    confirmed.get(i).getId(), TransactionStatus.CONFIRMED, "Transfer successful");
+        }
+        System.out.println("✅ Batch completed: " + confirmed.size() + "/" + requests.size() + " transfers");
+        return Arrays.asList(results);
+    }
+    
+    // Returns the amount in fixed-point units, the only form the ledger works with
+    private long validateTransferRequest(TransferRequest request) {
+        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+        
+        if (request.getFromAddress().equals(request.getToAddress())) {
+            throw new IllegalArgumentException("Cannot transfer to same address");
+        }
+        
+        if (request.getPriorityFee() != null) {
+            // Charged on top of the amount; the ledger checks the sender covers both
+            if (request.getPriorityFee().signum() < 0) {
+                throw new IllegalArgumentException("Priority fee must not be negative");
+            }
+            Amounts.toUnits(request.getPriorityFee());
+        }
+        
+        TransactionJournal.checkEncodable(request.getFromAddress(), TransactionJournal.MAX_ADDRESS_BYTES, "From address");
+        TransactionJournal.checkEncodable(request.getToAddress(), TransactionJournal.MAX_ADDRESS_BYTES, "To address");
+        
+        if (!priceBook.snapshot().supports(request.getTokenSymbol())) {
+            throw new IllegalArgumentException("Unsupported token: " + request.getTokenSymbol());
+        }
+        
+        if (requireKnownRecipient && !userIndex.isKnownAddress(request.getToAddress())) {
+            throw new IllegalArgumentException("Unknown recipient address: " + request.getToAddress());
+        }
+        
+        return Amounts.toUnits(request.getAmount());
+    }
+    
+    private Transaction confirmedTransaction(String transactionId, TransferRequest request, long amountUnits) {
+        Transaction transaction = new Transaction(
+            transactionId,
+            request.getFromAddress(),
+            request.getToAddress(),
+            Amounts.toDecimal(amountUnits),
+            request.getTokenSymbol(),
+            Amounts.toDecimal(calculateGasFee(amountUnits, request.getTokenSymbol()))
+        );
+        transaction.setStatus(TransactionStatus.CONFIRMED);
+        return transaction;
+    }
+    
+    // The transfer, then its priority fee as a transfer to the fee sink under an id
+    // derived from the transfer's, so the projector and blocks account for the fee
+    private List<Transaction> journalRecords(Transaction transaction, long feeUnits) {
+        if (feeUnits == 0) {
+            return List.of(transaction);
+        }
+        Transaction fee = new Transaction(
+            UUID.nameUUIDFromBytes(("priority-fee\n" + transaction.getId()).getBytes(StandardCharsets.UTF_8)).toString(),
+            transaction.getFromAddress(),
+            feeSinkAddress,
+            Amounts.toDecimal(feeUnits),
+            transaction.getTokenSymbol(),
+            BigDecimal.ZERO
+        );
+        fee.setStatus(TransactionStatus.CONFIRMED);
+        return List.of(transaction, fee);
+    }
+    
+    private long calculateGasFee(long amountUnits, String tokenSymbol) {
+        // Simple gas fee calculation - 0.1% of transaction amount. It tracks size, not
+        // urgency, so mempool priority comes from priorityFee instead
+        return Amounts.gasFee(amountUnits);
+    }
+    
+    private static long priorityFeeUnits(TransferRequest request) {
+        return request.getPriorityFee() == null ? 0 : Amounts.toUnits(request.getPriorityFee());
+    }
+    
+    // Throws IllegalStateException when the subscriber limit is reached
+    public SseEmitter streamWalletEvents(String walletAddress) {
+        return eventStream.subscribe(walletAddress);
+    }
+    
+    public Map<String, Object> getTokenStats(String tokenSymbol, int topHolders) {
+        if (topHolders < 0 || topHolders > MAX_TOP_HOLDERS) {
+            throw new IllegalArgumentException("top must be between 0 and " + MAX_TOP_HOLDERS);
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tokenSymbol", tokenSymbol);
+        stats.put("totalSupply", tokenAggregates.getTotalSupply(tokenSymbol));
+        stats.put("holders", tokenAggregates.getHolderCount(tokenSymbol));
+        stats.put("topHolders", tokenAggregates.getTopHolders(tokenSymbol, topHolders));
+        return stats;
+    }
+    
+    public Optional<Map<String, Object>> getBlock(long number) {
+        return blockRepository.findById(number).map(block -> {
+            List<String> transactionIds = new ArrayList<>(block.getTransactionCount());
+            for (Transaction transaction : transactionRepository.findByBlockNumberOrderByIdAsc(number)) {
+                transactionIds.add(transaction.getId());
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("number", block.getNumber());
+            response.put("hash", block.getHash());
+            response.put("previousHash", block.getPreviousHash());
+            response.put("merkleRoot", block.getMerkleRoot());
+            response.put("transactionCount", block.getTransactionCount());
+            response.put("sealedAt", block.getSealedAt());
+            response.put("transactions", transactionIds);
+            return response;
+        });
+    }
+    
+    // Audit path proving a transaction is a leaf under the block's Merkle root;
+    // empty when the block does not exist or does not contain the transaction
+    public Optional<Map<String, Object>> getInclusionProof(long number, String transactionId) {
+        Optional<Block> block = blockRepository.findById(number);
+        if (block.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Transaction> transactions = transactionRepository.findByBlockNumberOrderByIdAsc(number);
+        int index = -1;
+        for (int i = 0; i < transactions.size(); i++) {
+            if (transactions.get(i).getId().equals(transactionId)) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return Optional.empty();
+        }
+        Map<String, Object> proof = new LinkedHashMap<>();
+        proof.put("blockNumber", number);
+        proof.put("transactionId", transactionId);
+        proof.put("leafIndex", index);
+        proof.put("leafHash", MerkleTree.toHex(MerkleTree.leafHash(transactions.get(index))));
+        proof.put("path", MerkleTree.proof(transactions, index));
+        proof.put("merkleRoot", block.get().getMerkleRoot());
+        return Optional.of(proof);
+    }
+    
+    public void updateTokenPrice(String tokenSymbol, BigDecimal price) {
+        priceBook.setPrice(tokenSymbol, price);
+    }
+    
+    public PriceSnapshot getPriceSnapshot() {
+        return priceBook.snapshot();
+    }
+    
+    public Map<String, Object> getWalletSummary(String walletAddress) {
+        return summaryCache.get(walletAddress, this::readBalances,
+                (balances, prices) -> buildWalletSummary(walletAddress, balances, prices));
+    }
+    
+    // Values in fixed-point units; falls back to BigDecimal only if a value overflows
+    private Map<String, Object> buildWalletSummary(String walletAddress, List<TokenBalance> balances, PriceSnapshot prices) {
+        ValueTotal total = new ValueTotal();
+        
+        Map<String, Object> summary = new HashMap<>();
+        List<Map<String, Object>> tokenBalances = new ArrayList<>();
+        
+        for (TokenBalance balance : balances) {
+            int index = prices.indexOf(balance.getTokenSymbol());
+            long priceUnits = index < 0 ? 0 : prices.priceUnitsAt(index);
+            BigDecimal tokenValue;
+            try {
+                long valueUnits = Amounts.multiply(balance.getUnits(), priceUnits);
+                total.add(valueUnits);
+                tokenValue = Amounts.toDecimal(valueUnits);
+            } catch (ArithmeticException e) {
+                tokenValue = Amounts.toDecimal(balance.getUnits()).multiply(Amounts.toDecimal(priceUnits));
+                total.add(tokenValue);
+            }
+            
+            Map<String, Object> tokenInfo = new HashMap<>();
+            tokenInfo.put("symbol", balance.getTokenSymbol());
+            tokenInfo.put("balance", Amounts.toDecimal(balance.getUnits()));
+            tokenInfo.put("price", Amounts.toDecimal(priceUnits));
+            tokenInfo.put("value", tokenValue);
+            tokenInfo.put("lastUpdated", balance.getLastUpdated());
+            
+            tokenBalances.add(tokenInfo);
+        }
+        
+        summary.put("walletAddress", walletAddress);
+        summary.put("totalValue", total.toDecimal());
+        summary.put("tokenBalances", tokenBalances);
+        summary.put("priceVersion", prices.getVersion());
+        summary.put("lastUpdated", LocalDateTime.now());
+        
+        return summary;
+    }
+    
+    // Balances come from the ledger, so values are current even while projection lags
+    public PortfolioValuation valueWallets(List<String> walletAddresses) {
+        if (walletAddresses == null || walletAddresses.isEmpty() || walletAddresses.size() > maxSummaryWallets) {
+            throw new IllegalArgumentException("Between 1 and " + maxSummaryWallets + " wallet addresses are required");
+        }
+        metricsService.incrementCounter("summaries.wallets", walletAddresses.size());
+        return new PortfolioValuation(walletAddresses, priceBook.snapshot(), this::readBalances);
+    }
+    
+    // Waits until projected transactions are at most maxLagMs (or the configured bound)
+    // behind confirmed ones and returns the lag; IllegalStateException if they stay behind
+    public long awaitReadFreshness(Long maxLagMs) {
+        return readFreshness.awaitFresh(maxLagMs);
+    }
+    
+    // Throws IllegalArgumentException when at is in the future or before recorded history
+    public Map<String, Object> getBalancesAt(String walletAddress, LocalDateTime at) {
+        return balanceHistory.getBalancesAt(walletAddress, at);
+    }
+    
+    public List<Transaction> getTransactionHistory(String walletAddress, int limit) {
+        return getTransactionHistory(walletAddress, limit, null).getTransactions();
+    }
+    
+    // Newest-first history after the given cursor. Both sides are read with their
+    // own keyset query and merged, so no more than limit rows are loaded per side.
+    public TransactionPage getTransactionHistory(String walletAddress, int limit, String cursor) {
+        if (limit <= 0 || limit > MAX_HISTORY_PAGE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_HISTORY_PAGE);
+        }
+        Pageable page = PageRequest.of(0, limit);
+        List<Transaction> sent;
+        List<Transaction> received;
+        if (cursor == null) {
+            sent = transactionRepository.findByFromAddressOrderByCreatedAtDescIdDesc(walletAddress, page);
+            received = transactionRepository.findByToAddressOrderByCreatedAtDescIdDesc(walletAddress, page);
+        } else {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime createdAt = LocalDateTime.parse(position[0]);
+            sent = transactionRepository.findSentBefore(walletAddress, createdAt, position[1], page);
+            received = transactionRepository.findReceivedBefore(walletAddress, createdAt, position[1], page);
+        }
+        
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, sent.size() + received.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < sent.size() || j < received.size())) {
+            if (j >= received.size() || (i < sent.size() && HISTORY_ORDER.compare(sent.get(i), received.get(j)) <= 0)) {
+                merged.add(sent.get(i++));
+            } else {
+                merged.add(received.get(j++));
+            }
+        }
+        
+        boolean more = i < sent.size() || j < received.size() || sent.size() == limit || received.size() == limit;
+        String nextCursor = more && !merged.isEmpty() ? encodeCursor(merged.get(merged.size() - 1)) : null;
+        return new TransactionPage(merged, nextCursor);
+    }
+    
+    private static String encodeCursor(Transaction last) {
+        String position = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime.parse(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
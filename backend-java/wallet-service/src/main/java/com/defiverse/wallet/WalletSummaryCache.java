@@ -0,0 +1,143 @@
+package com.defiverse.wallet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Wallet Summary Cache
+// Bounded, TTL-evicting cache of per-wallet summaries. Entries are dropped as soon
+// as the ledger changes one of the wallet's balances. Price moves only re-value
+// the cached balances, and only when a token the wallet holds was repriced. That
+// check runs on read against the snapshot's token versions rather than from a
+// PriceListener, so ticks cost nothing for wallets nobody is reading.
+@Service
+public class WalletSummaryCache implements BalanceListener {
+    
+    @Autowired
+    private BalanceLedger balanceLedger;
+    
+    @Autowired
+    private PriceBook priceBook;
+    
+    @Autowired
+    private MetricsService metricsService;
+    
+    @Value("${defiverse.summary-cache.max-size:10000}")
+    private int maxSize;
+    
+    @Value("${defiverse.summary-cache.ttl-ms:5000}")
+    private long ttlMs;
+    
+    private static final int STAMP_STRIPES = 1024;
+    
+    private final Map<String, CachedSummary> entries = new ConcurrentHashMap<>();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedKeys = new AtomicInteger();
+    // Bumped on every invalidation so a load that raced with a change is never cached
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMP_STRIPES);
+    
+    @PostConstruct
+    public void register() {
+        balanceLedger.addListener(this);
+    }
+    
+    public Map<String, Object> get(String walletAddress,
+                                   Function<String, List<TokenBalance>> loader,
+                                   BiFunction<List<TokenBalance>, PriceSnapshot, Map<String, Object>> valuer) {
+        PriceSnapshot prices = priceBook.snapshot();
+        CachedSummary cached = entries.get(walletAddress);
+        if (cached != null) {
+            if (System.nanoTime() - cached.loadedAt < TimeUnit.MILLISECONDS.toNanos(ttlMs)) {
+                metricsService.incrementCounter("summary_cache.hits");
+                Valuation valuation = cached.valuation;
+                if (!prices.changedSince(cached.tokenIndexes, valuation.priceVersion)) {
+                    return valuation.summary;
+                }
+                metricsService.incrementCounter("summary_cache.revaluations");
+                Valuation revalued = new Valuation(prices.getVersion(), valuer.apply(cached.balances, prices));
+                cached.valuation = revalued;
+                return revalued.summary;
+            }
+            if (entries.remove(walletAddress, cached)) {
+                metricsService.incrementCounter("summary_cache.evictions");
+            }
+        }
+        metricsService.incrementCounter("summary_cache.misses");
+        
+        int stripe = stripeFor(walletAddress);
+        long stamp = stamps.get(stripe);
+        List<TokenBalance> balances = loader.apply(walletAddress);
+        Valuation valuation = new Valuation(prices.getVersion(), valuer.apply(balances, prices));
+        
+        CachedSummary loaded = new CachedSummary(balances, prices.indexesOf(balances), valuation);
+        if (entries.put(walletAddress, loaded) == null) {
+            insertionOrder.add(walletAddress);
+            queuedKeys.incrementAndGet();
+        }
+        if (stamps.get(stripe) != stamp) {
+            entries.remove(walletAddress, loaded);
+        }
+        evictOverflow();
+        return valuation.summary;
+    }
+    
+    public void invalidate(String walletAddress) {
+        stamps.incrementAndGet(stripeFor(walletAddress));
+        entries.remove(walletAddress);
+    }
+    
+    @Override
+    public void onBalanceChanged(String walletAddress, String tokenSymbol, long oldUnits, long newUnits) {
+        invalidate(walletAddress);
+    }
+    
+    // FIFO eviction; the order queue is also trimmed so invalidation churn cannot grow it
+    private void evictOverflow() {
+        while (entries.size() > maxSize || queuedKeys.get() > 2 * maxSize) {
+            String oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queuedKeys.decrementAndGet();
+            if (entries.remove(oldest) != null) {
+                metricsService.incrementCounter("summary_cache.evictions");
+            }
+        }
+    }
+    
+    private static int stripeFor(String walletAddress) {
+        return Math.floorMod(walletAddress.hashCode(), STAMP_STRIPES);
+    }
+    
+    private static final class CachedSummary {
+        final List<TokenBalance> balances;
+        final int[] tokenIndexes;
+        final long loadedAt = System.nanoTime();
+        volatile Valuation valuation;
+        
+        CachedSummary(List<TokenBalance> balances, int[] tokenIndexes, Valuation valuation) {
+            this.balances = balances;
+            this.tokenIndexes = tokenIndexes;
+            this.valuation = valuation;
+        }
+    }
+    
+    private static final class Valuation {
+        final long priceVersion;
+        final Map<String, Object> summary;
+        
+        Valuation(long priceVersion, Map<String, Object> summary) {
+            this.priceVersion = priceVersion;
+            this.summary = summary;
+        }
+    }
+}
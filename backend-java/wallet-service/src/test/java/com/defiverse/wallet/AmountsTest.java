@@ -0,0 +1,67 @@
+package com.defiverse.wallet;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AmountsTest {
+
+    @Test
+    void toUnitsIsExactAndRejectsExtraDecimals() {
+        assertEquals(123_450_000L, Amounts.toUnits(new BigDecimal("1.2345")));
+        assertEquals(1L, Amounts.toUnits(new BigDecimal("0.00000001")));
+        assertThrows(IllegalArgumentException.class, () -> Amounts.toUnits(new BigDecimal("0.000000001")));
+        assertThrows(IllegalArgumentException.class, () -> Amounts.toUnits(new BigDecimal("1e12")));
+    }
+
+    @Test
+    void toUnitsRoundingDownTruncates() {
+        assertEquals(199_999_999L, Amounts.toUnitsRoundingDown(new BigDecimal("1.999999999")));
+        assertEquals(0, new BigDecimal("1.99999999").compareTo(Amounts.toDecimal(199_999_999L)));
+        assertThrows(IllegalArgumentException.class, () -> Amounts.toUnitsRoundingDown(new BigDecimal("1e12")));
+    }
+
+    @Test
+    void gasFeeIsATenthOfAPercentRoundedDown() {
+        assertEquals(100_000L, Amounts.gasFee(Amounts.ONE));
+        assertEquals(0L, Amounts.gasFee(999));
+    }
+
+    @Test
+    void multiplyMatchesBigIntegerAcrossThe128BitPath() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 100_000; i++) {
+            long amount = random.nextLong(0, Long.MAX_VALUE);
+            long price = random.nextLong(0, i % 2 == 0 ? Amounts.ONE * 100 : Long.MAX_VALUE);
+            BigInteger exact = BigInteger.valueOf(amount).multiply(BigInteger.valueOf(price))
+                    .divide(BigInteger.valueOf(Amounts.ONE));
+            if (exact.bitLength() < 64) {
+                assertEquals(exact.longValueExact(), Amounts.multiply(amount, price), amount + " x " + price);
+            } else {
+                assertThrows(ArithmeticException.class, () -> Amounts.multiply(amount, price), amount + " x " + price);
+            }
+        }
+    }
+
+    @Test
+    void multiplyHandlesTheEdgesOfTheRange() {
+        assertEquals(0L, Amounts.multiply(0, Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, Amounts.multiply(Long.MAX_VALUE, Amounts.ONE));
+        assertThrows(ArithmeticException.class, () -> Amounts.multiply(Long.MAX_VALUE, Amounts.ONE + 1));
+        assertThrows(ArithmeticException.class, () -> Amounts.multiply(-1, Amounts.ONE));
+    }
+
+    @Test
+    void valueTotalSpillsIntoBigDecimalInsteadOfOverflowing() {
+        ValueTotal total = new ValueTotal();
+        total.add(Long.MAX_VALUE);
+        total.add(Long.MAX_VALUE);
+        total.add(new BigDecimal("0.5"));
+        BigDecimal expected = Amounts.toDecimal(Long.MAX_VALUE).multiply(BigDecimal.valueOf(2)).add(new BigDecimal("0.5"));
+        assertEquals(0, expected.compareTo(total.toDecimal()));
+    }
+}
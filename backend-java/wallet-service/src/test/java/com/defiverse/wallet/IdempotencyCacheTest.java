@@ -0,0 +1,121 @@
+package com.defiverse.wallet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IdempotencyCacheTest {
+
+    private static final String SENDER = "0x0000000000000000000000000000000000000001";
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final JournalProjector journalProjector = mock(JournalProjector.class);
+    private final AtomicLong projectedSeq = new AtomicLong();
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(journalProjector.getProjectedSeq()).thenAnswer(invocation -> projectedSeq.get());
+        cache = new IdempotencyCache();
+        ReflectionTestUtils.setField(cache, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(cache, "metricsService", new MetricsService());
+        ReflectionTestUtils.setField(cache, "journalProjector", journalProjector);
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "ttlMs", 60_000L);
+    }
+
+    @Test
+    void duplicatesShareTheFirstSubmission() {
+        CompletableFuture<TransactionResult> pending = new CompletableFuture<>();
+        CompletableFuture<TransactionResult> first = cache.submit(transfer("2"), "key", id -> {
+            runs.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<TransactionResult> retry = cache.submit(transfer("2.00"), "key", id -> fail("ran twice"));
+
+        pending.complete(new TransactionResult(IdempotencyCache.transactionId(SENDER, "key"),
+                TransactionStatus.CONFIRMED, "Transfer successful", 1));
+        assertEquals(1, runs.get());
+        assertSame(first.join(), retry.join());
+    }
+
+    @Test
+    void aDifferentTransferUnderTheSameKeyIsRejected() {
+        cache.submit(transfer("2"), "key", id -> confirmed(id, 1)).join();
+        TransactionResult reused = cache.submit(transfer("3"), "key", id -> fail("ran twice")).join();
+        assertEquals(TransactionStatus.FAILED, reused.getStatus());
+    }
+
+    @Test
+    void aFailureThatWroteNothingCanBeRetried() {
+        cache.submit(transfer("2"), "key", id -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture(new TransactionResult(null, TransactionStatus.FAILED, "Insufficient balance"));
+        }).join();
+        TransactionResult retried = cache.submit(transfer("2"), "key", id -> {
+            runs.incrementAndGet();
+            return confirmed(id, 1);
+        }).join();
+        assertEquals(TransactionStatus.CONFIRMED, retried.getStatus());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void aFailureThatWroteAJournalRecordIsKept() {
+        cache.submit(transfer("2"), "key", id -> CompletableFuture.completedFuture(
+                new TransactionResult(null, TransactionStatus.FAILED, "Transaction journal is closed", 4))).join();
+        assertEquals(TransactionStatus.FAILED,
+                cache.submit(transfer("2"), "key", id -> fail("ran twice")).join().getStatus());
+    }
+
+    // Size and TTL eviction must wait for the projector, or a retry would find neither
+    // the entry nor the transactions row and run the transfer again
+    @Test
+    void confirmedEntriesOutliveEvictionUntilProjected() {
+        ReflectionTestUtils.setField(cache, "maxSize", 1);
+        ReflectionTestUtils.setField(cache, "ttlMs", 0L);
+        String id = IdempotencyCache.transactionId(SENDER, "key");
+        cache.submit(transfer("2"), "key", transactionId -> confirmed(transactionId, 5)).join();
+        cache.submit(transfer("1"), "other-1", transactionId -> confirmed(transactionId, 6)).join();
+        cache.submit(transfer("1"), "other-2", transactionId -> confirmed(transactionId, 7)).join();
+
+        assertEquals(TransactionStatus.CONFIRMED, cache.submit(transfer("2"), "key", transactionId -> fail("ran twice")).join().getStatus());
+        verify(transactionRepository, times(1)).findById(id);
+
+        // Once projected the entry may go, and the stored row answers the retry
+        projectedSeq.set(7);
+        cache.submit(transfer("1"), "other-3", transactionId -> confirmed(transactionId, 8)).join();
+        Transaction stored = new Transaction(id, SENDER, "0x0000000000000000000000000000000000000002",
+                new BigDecimal("2"), "ETH", BigDecimal.ZERO);
+        stored.setStatus(TransactionStatus.CONFIRMED);
+        when(transactionRepository.findById(id)).thenReturn(Optional.of(stored));
+        assertEquals(id, cache.submit(transfer("2"), "key", transactionId -> fail("ran twice")).join().getTransactionId());
+        verify(transactionRepository, times(2)).findById(id);
+    }
+
+    private static CompletableFuture<TransactionResult> confirmed(String transactionId, long journalSeq) {
+        return CompletableFuture.completedFuture(
+                new TransactionResult(transactionId, TransactionStatus.CONFIRMED, "Transfer successful", journalSeq));
+    }
+
+    private static TransferRequest transfer(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAddress(SENDER);
+        request.setToAddress("0x0000000000000000000000000000000000000002");
+        request.setAmount(new BigDecimal(amount));
+        request.setTokenSymbol("ETH");
+        return request;
+    }
+}
@@ -0,0 +1,133 @@
+package com.defiverse.wallet;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Crossing transfers over a few shared wallet pairs: even threads send A -> B while
+// odd threads send B -> A, every tenth send is a batch holding both directions plus
+// a priority fee, so sender, receiver and fee-sink stripes are all taken in
+// conflicting orders. Balances are small, so overdraw attempts are common.
+@SpringBootTest
+class TransferConcurrencyTest {
+
+    private static final String[] TOKENS = {"ETH", "USDT"};
+    private static final int WALLETS = 8;
+    private static final int THREADS = 32;
+    private static final int SENDS_PER_THREAD = 200;
+    private static final BigDecimal SEEDED_SUPPLY = new BigDecimal("800");
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private BalanceLedger ledger;
+
+    @Autowired
+    private TokenAggregates tokenAggregates;
+
+    @Autowired
+    private WalletBalanceRepository walletBalanceRepository;
+
+    @Autowired
+    private TransactionJournal journal;
+
+    @Autowired
+    private JournalProjector projector;
+
+    @Test
+    void crossingTransfersNeitherDeadlockNorLoseSupply() throws Exception {
+        for (String token : TOKENS) {
+            assertEquals(0, SEEDED_SUPPLY.compareTo(ledger.getTotalSupply(token)), token + " seed");
+        }
+
+        LongAdder confirmed = new LongAdder();
+        Queue<String> unexpected = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService workers = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            boolean forward = t % 2 == 0;
+            SplittableRandom random = new SplittableRandom(t);
+            workers.execute(() -> {
+                try {
+                    start.await();
+                    for (int i = 1; i <= SENDS_PER_THREAD; i++) {
+                        int pair = random.nextInt(WALLETS / 2);
+                        String token = TOKENS[random.nextInt(TOKENS.length)];
+                        List<TransactionResult> results = i % 10 == 0
+                                ? walletService.processTransfers(List.of(
+                                        transfer(pair, true, token, random, "0.01"),
+                                        transfer(pair, false, token, random, "0.01")))
+                                : List.of(walletService.processTransfer(
+                                        transfer(pair, forward, token, random, null)).join());
+                        for (TransactionResult result : results) {
+                            if (result.getStatus() == TransactionStatus.CONFIRMED) {
+                                confirmed.increment();
+                            } else if (!"Insufficient balance".equals(result.getMessage())) {
+                                unexpected.add(result.getMessage());
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    unexpected.add(e.toString());
+                }
+            });
+        }
+        start.countDown();
+        workers.shutdown();
+        // Stripes taken out of order would hang here rather than fail
+        assertTrue(workers.awaitTermination(60, TimeUnit.SECONDS), "transfers did not finish, likely deadlocked");
+
+        assertEquals(List.of(), new ArrayList<>(unexpected));
+        assertTrue(confirmed.sum() > 0);
+        awaitProjection();
+        for (String token : TOKENS) {
+            assertEquals(0, SEEDED_SUPPLY.compareTo(ledger.getTotalSupply(token)), token + " ledger supply");
+            assertEquals(0, SEEDED_SUPPLY.compareTo(tokenAggregates.getTotalSupply(token)), token + " aggregate supply");
+            assertEquals(0, SEEDED_SUPPLY.compareTo(ReadWriteRoutingDataSource.onPrimary(
+                    () -> walletBalanceRepository.getTotalSupplyByToken(token))), token + " stored supply");
+        }
+        for (WalletBalance row : ReadWriteRoutingDataSource.onPrimary(walletBalanceRepository::findAll)) {
+            long units = ledger.getBalanceUnits(row.getWalletAddress(), row.getTokenSymbol());
+            assertTrue(units >= 0, row.getWalletAddress() + " went negative");
+            assertEquals(units, Amounts.toUnits(row.getBalance()), row.getWalletAddress() + " stored balance");
+        }
+    }
+
+    private void awaitProjection() throws InterruptedException {
+        long target = journal.getDurableSeq();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (projector.getProjectedSeq() < target) {
+            assertTrue(System.nanoTime() < deadline, "projection stalled");
+            Thread.sleep(5);
+        }
+    }
+
+    private static TransferRequest transfer(int pair, boolean forward, String token, SplittableRandom random,
+                                            String priorityFee) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAddress(address(2 * pair + (forward ? 1 : 2)));
+        request.setToAddress(address(2 * pair + (forward ? 2 : 1)));
+        request.setAmount(BigDecimal.valueOf(random.nextInt(1, 1001), 2));
+        request.setTokenSymbol(token);
+        if (priorityFee != null) {
+            request.setPriorityFee(new BigDecimal(priorityFee));
+        }
+        return request;
+    }
+
+    private static String address(int wallet) {
+        return String.format("0x%040x", wallet);
+    }
+}
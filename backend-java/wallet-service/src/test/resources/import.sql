@@ -0,0 +1,25 @@
+-- Wallets shared by the Spring tests: eight owners, each holding ETH and USDT
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet1', 'wallet1@defiverse.test', '-', '0x0000000000000000000000000000000000000001', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet2', 'wallet2@defiverse.test', '-', '0x0000000000000000000000000000000000000002', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet3', 'wallet3@defiverse.test', '-', '0x0000000000000000000000000000000000000003', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet4', 'wallet4@defiverse.test', '-', '0x0000000000000000000000000000000000000004', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet5', 'wallet5@defiverse.test', '-', '0x0000000000000000000000000000000000000005', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet6', 'wallet6@defiverse.test', '-', '0x0000000000000000000000000000000000000006', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet7', 'wallet7@defiverse.test', '-', '0x0000000000000000000000000000000000000007', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO users (username, email, password_hash, wallet_address, role, created_at, is_active) VALUES ('wallet8', 'wallet8@defiverse.test', '-', '0x0000000000000000000000000000000000000008', 'USER', CURRENT_TIMESTAMP, TRUE);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000001', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000001', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000002', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000002', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000003', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000003', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000004', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000004', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000005', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000005', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000006', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000006', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000007', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000007', 'USDT', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000008', 'ETH', 100, CURRENT_TIMESTAMP, 0);
+INSERT INTO wallet_balances (wallet_address, token_symbol, balance, last_updated, version) VALUES ('0x0000000000000000000000000000000000000008', 'USDT', 100, CURRENT_TIMESTAMP, 0);